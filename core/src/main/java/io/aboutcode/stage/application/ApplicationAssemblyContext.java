@@ -1,6 +1,7 @@
 package io.aboutcode.stage.application;
 
 import io.aboutcode.stage.component.Component;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Context for assembling an application before starting and executing it
@@ -25,4 +26,26 @@ public interface ApplicationAssemblyContext {
      * @param component The component to add
      */
     void addComponent(Component component);
+
+    /**
+     * Allows the application to initialize and start up to the specified number of independent
+     * components concurrently, which reduces the startup time of applications with many slow
+     * components that do not depend on each other.
+     *
+     * @param parallelism The maximum number of components to initialize or start concurrently
+     *
+     * @see io.aboutcode.stage.component.ComponentContainer#setParallelism(int)
+     */
+    void setParallelism(int parallelism);
+
+    /**
+     * Limits the time the application waits for each component to stop and to be destroyed when
+     * shutting down.
+     *
+     * @param timeout The maximum time to wait for each component, or zero to wait indefinitely
+     * @param unit    The unit of the timeout
+     *
+     * @see io.aboutcode.stage.component.ComponentContainer#setShutdownTimeout(long, TimeUnit)
+     */
+    void setShutdownTimeout(long timeout, TimeUnit unit);
 }
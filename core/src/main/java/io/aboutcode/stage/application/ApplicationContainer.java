@@ -14,6 +14,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -336,8 +337,22 @@ public class ApplicationContainer {
             public void addComponent(Component component) {
                 this.addComponent(null, component);
             }
+
+            @Override
+            public void setParallelism(int parallelism) {
+                componentContainer.setParallelism(parallelism);
+            }
+
+            @Override
+            public void setShutdownTimeout(long timeout, TimeUnit unit) {
+                componentContainer.setShutdownTimeout(timeout, unit);
+            }
         };
         applicationProcessor.assemble(applicationAssemblyContext);
+        List<ConfigurationParameter> allConfigurationParameters = Collections
+                .unmodifiableList(new ArrayList<>(configurationParameters));
+        features.forEach(feature -> feature.assemble(applicationAssemblyContext,
+                                                     allConfigurationParameters));
 
         if (daemonize) {
             runner = Thread.currentThread();
@@ -353,6 +368,7 @@ public class ApplicationContainer {
             notifyStartupEvent("Startup", 10, 10, "Application started");
             if (applicationStatusListener != null) {
                 applicationStatusListener.onStartupFinished();
+                applicationStatusListener.onStartupProfile(componentContainer.getProfile());
             }
 
             if (daemonize && componentContainer.isRunning()) {
@@ -371,6 +387,7 @@ public class ApplicationContainer {
                 notifyStartupEvent("Pre shutdown", 2, 2, "Application stopped");
                 if (applicationStatusListener != null) {
                     applicationStatusListener.onShutdownFinished();
+                    applicationStatusListener.onShutdownProfile(componentContainer.getProfile());
                 }
             }
         }
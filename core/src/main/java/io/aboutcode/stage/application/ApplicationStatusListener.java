@@ -1,5 +1,7 @@
 package io.aboutcode.stage.application;
 
+import io.aboutcode.stage.component.LifeCycleProfile;
+
 /**
  * Implementors of this interface will be notified of events generated during the lifecycle of an
  * {@link Application}. This can be used to show a graphical interface with a "loading" animation,
@@ -24,6 +26,14 @@ public interface ApplicationStatusListener {
      */
     default void onStartupFinished() {}
 
+    /**
+     * Called when the startup procedure has concluded, with the time each component spent
+     * initializing, resolving its dependencies and starting.
+     *
+     * @param profile The lifecycle profile of the application's components
+     */
+    default void onStartupProfile(LifeCycleProfile profile) {}
+
     /**
      * Called for every phase of the shutdown procedure.
      *
@@ -41,4 +51,12 @@ public interface ApplicationStatusListener {
      * Called when the shutdown procedure has concluded.
      */
     default void onShutdownFinished(){}
+
+    /**
+     * Called when the shutdown procedure has concluded, with the time each component spent in each
+     * phase of its lifecycle.
+     *
+     * @param profile The lifecycle profile of the application's components
+     */
+    default void onShutdownProfile(LifeCycleProfile profile) {}
 }
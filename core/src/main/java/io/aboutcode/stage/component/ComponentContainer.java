@@ -2,14 +2,31 @@ package io.aboutcode.stage.component;
 
 import io.aboutcode.stage.dependency.DependencyException;
 import io.aboutcode.stage.lifecycle.LifeCycleException;
+import io.aboutcode.stage.lifecycle.LifeCyclePhase;
 import io.aboutcode.stage.lifecycle.LifeCycleStatus;
 import io.aboutcode.stage.util.Action;
 import io.aboutcode.stage.util.ThrowingAction;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
@@ -23,6 +40,8 @@ public class ComponentContainer {
     private final Object monitor = new Object();
     private final Map<Object, ComponentController> controllers = new HashMap<>();
     private final List<Object> controllerOrder = new ArrayList<>();
+    private final List<List<Object>> controllerLevels = new ArrayList<>();
+    private final Map<Object, Set<Object>> controllerDependencies = new HashMap<>();
     private String identifier;
     private Logger logger;
     private final StateMachine stateMachine = new StateMachineBuilder()
@@ -48,6 +67,12 @@ public class ComponentContainer {
             .addTransition("Destroyed", null, null)
             .withInitialState("New");
     private Action shutdownFunction;
+    private int parallelism = 1;
+    private long shutdownTimeoutNanos;
+    // threads processing components while starting or stopping, null if processed one at a time
+    private ThreadPoolExecutor lifecycleExecutor;
+    // lazy components may only be activated between starting and stopping the container
+    private volatile boolean activationAllowed;
 
     /**
      * Creates a new instance with the specified identifier and shutdown callback.
@@ -81,7 +106,7 @@ public class ComponentContainer {
             return;
         }
 
-        stateMachine.transitionTo("Running");
+        transitionTo("Running");
     }
 
     /**
@@ -98,11 +123,89 @@ public class ComponentContainer {
             return;
         }
 
-        stateMachine.transitionTo("Destroyed");
+        transitionTo("Destroyed");
     }
 
     /**
-     * Add a component to the container and register it for lifecycle management.
+     * Transitions the state machine to the specified state, providing the threads to process
+     * components concurrently for the duration of the transition.
+     */
+    private void transitionTo(String state) {
+        int threads = parallelism();
+        if (threads > 1 || shutdownTimeoutNanos() > 0) {
+            lifecycleExecutor = new ThreadPoolExecutor(threads, threads,
+                                                       0, TimeUnit.MILLISECONDS,
+                                                       new LinkedBlockingQueue<>(),
+                                                       threadFactory("lifecycle"));
+        }
+        try {
+            stateMachine.transitionTo(state);
+        } finally {
+            if (lifecycleExecutor != null) {
+                lifecycleExecutor.shutdownNow();
+                lifecycleExecutor = null;
+            }
+        }
+    }
+
+    /**
+     * <p>Defines the number of threads the container may use to initialize and start components
+     * concurrently. By default, the container processes one component at a time.</p>
+     *
+     * <p>With a parallelism greater than one, all components are initialized concurrently, since
+     * components may not use each other during initialization. Components are then started level
+     * by level: each level contains the components whose dependencies have all been started in
+     * previous levels and the components of a level are started concurrently. If a component
+     * fails to start, the remaining levels are not started and the container shuts down as it
+     * would when processing one component at a time. When shutting down, the levels are stopped
+     * and destroyed concurrently in reverse order. The threads are only kept while the container
+     * starts or shuts down.</p>
+     *
+     * @param parallelism The maximum number of components to initialize or start concurrently
+     *
+     * @throws IllegalStateException    Thrown if the container has already been started
+     * @throws IllegalArgumentException Thrown if the parallelism is less than one
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(
+                    String.format("Parallelism must be positive but was %d", parallelism));
+        }
+        synchronized (monitor) {
+            if (!stateMachine.isInInitialState()) {
+                throw new IllegalStateException(String.format(
+                        "Trying to change parallelism of container '%s' after initialization",
+                        identifier));
+            }
+            this.parallelism = parallelism;
+        }
+    }
+
+    /**
+     * Defines how long the container waits for each component to stop and to be destroyed. A
+     * component that takes longer is interrupted and abandoned, so the remaining components can be
+     * shut down. Since an abandoned component keeps its thread, the container adds a thread for
+     * each abandoned component until it has been shut down. By default, the container waits for
+     * each component indefinitely.
+     *
+     * @param timeout The maximum time to wait for each component, or zero to wait indefinitely
+     * @param unit    The unit of the timeout
+     *
+     * @throws IllegalArgumentException Thrown if the timeout is negative
+     */
+    public void setShutdownTimeout(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException(
+                    String.format("Shutdown timeout must not be negative but was %d", timeout));
+        }
+        synchronized (monitor) {
+            this.shutdownTimeoutNanos = unit.toNanos(timeout);
+        }
+    }
+
+    /**
+     * Add a component to the container and register it for lifecycle management. Components of
+     * classes annotated with {@link Lazy} are only initialized and started once they are used.
      *
      * @param identifier   The unique identifier for this component
      * @param component    The component to manage
@@ -140,6 +243,48 @@ public class ComponentContainer {
         return component;
     }
 
+    /**
+     * Returns the time each component spent in each phase of its lifecycle so far, including the
+     * dependencies of each component and the critical path of the startup.
+     *
+     * @return A snapshot of the lifecycle profile of the components of this container
+     */
+    public LifeCycleProfile getProfile() {
+        List<Object> order;
+        Map<Object, Set<Object>> dependencies;
+        synchronized (controllerOrder) {
+            order = new ArrayList<>(controllerOrder);
+            dependencies = new HashMap<>(controllerDependencies);
+        }
+        Map<Object, long[]> durations = new HashMap<>();
+        for (Object componentKey : order) {
+            durations.put(componentKey, controllers.get(componentKey).getDurations());
+        }
+        return new LifeCycleProfile(order, durations, dependencies);
+    }
+
+    private int parallelism() {
+        synchronized (monitor) {
+            return parallelism;
+        }
+    }
+
+    private long shutdownTimeoutNanos() {
+        synchronized (monitor) {
+            return shutdownTimeoutNanos;
+        }
+    }
+
+    private ThreadFactory threadFactory(String purpose) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, String.format("%s-%s-%d", identifier, purpose,
+                                                               threadCount.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
     private interface State {
         State transition();
 
@@ -160,11 +305,20 @@ public class ComponentContainer {
         private Component component;
         private Logger logger;
         private LifeCycleStatus status = LifeCycleStatus.New;
+        private final long[] durations = new long[LifeCyclePhase.values().length];
+        private final boolean lazy;
+        private final Object activationMonitor = new Object();
+        private volatile boolean active;
+        private volatile boolean activationRequired;
+        private Object proxy;
+        private boolean proxyUnavailable;
+        private LifeCycleException activationFailure;
 
         ComponentController(Object identifier, Component component, Logger logger) {
             this.identifier = identifier;
             this.component = component;
             this.logger = logger;
+            this.lazy = component.getClass().isAnnotationPresent(Lazy.class);
         }
 
         @Override
@@ -180,17 +334,19 @@ public class ComponentContainer {
         }
 
         void init() throws LifeCycleException {
-            transitState(LifeCycleStatus.Initializing, LifeCycleStatus.Initialized,
-                         () -> component.init(this));
+            transitState(LifeCyclePhase.Init, LifeCycleStatus.Initializing,
+                         LifeCycleStatus.Initialized, () -> component.init(this));
         }
 
         void start() throws LifeCycleException {
-            transitState(LifeCycleStatus.Starting, LifeCycleStatus.Started, component::start);
+            transitState(LifeCyclePhase.Start, LifeCycleStatus.Starting, LifeCycleStatus.Started,
+                         component::start);
         }
 
         void stop() {
             try {
-                transitState(LifeCycleStatus.Stopping, LifeCycleStatus.Stopped, component::stop);
+                transitState(LifeCyclePhase.Stop, LifeCycleStatus.Stopping,
+                             LifeCycleStatus.Stopped, component::stop);
             } catch (LifeCycleException e) {
                 // never thrown
             }
@@ -198,23 +354,176 @@ public class ComponentContainer {
 
         void destroy() {
             try {
-                transitState(LifeCycleStatus.Destroying, LifeCycleStatus.Destroyed,
-                             component::destroy);
+                transitState(LifeCyclePhase.Destroy, LifeCycleStatus.Destroying,
+                             LifeCycleStatus.Destroyed, component::destroy);
             } catch (LifeCycleException e) {
                 // never thrown
             }
         }
 
-        private void transitState(LifeCycleStatus start, LifeCycleStatus end,
-                                  ThrowingAction<LifeCycleException> action)
+        /**
+         * Returns whether this component is only activated when it is used.
+         */
+        boolean isLazy() {
+            return lazy;
+        }
+
+        /**
+         * Returns whether this component is lazy and has to be activated when the container
+         * starts, because a dependant retrieved it by its class rather than an interface.
+         */
+        boolean isActivationRequired() {
+            return activationRequired;
+        }
+
+        /**
+         * Returns whether this component is lazy and has not been activated, hence does not need
+         * to be stopped or destroyed. Waits for an activation in progress.
+         */
+        boolean isDormant() {
+            if (!lazy) {
+                return false;
+            }
+            synchronized (activationMonitor) {
+                return getStatus() == LifeCycleStatus.New;
+            }
+        }
+
+        /**
+         * Returns the object handed to dependants that retrieve this component as the specified
+         * type: a proxy activating the component on first use if the component is lazy, or the
+         * component itself otherwise.
+         */
+        Object dependency(Class<?> type) {
+            if (lazy) {
+                Object lazyProxy = proxy();
+                if (lazyProxy != null && type.isInstance(lazyProxy)) {
+                    return lazyProxy;
+                }
+                logger.debug(String.format(
+                        "Lazy component retrieved as '%s', activating it on startup",
+                        type.getName()));
+                activationRequired = true;
+            }
+            return component;
+        }
+
+        /**
+         * Initializes and starts this lazy component unless that has happened already.
+         *
+         * @throws IllegalStateException Thrown if the container is not running or the component
+         *                               could not be activated
+         */
+        void activate() {
+            if (active) {
+                return;
+            }
+            synchronized (activationMonitor) {
+                if (active) {
+                    return;
+                }
+                if (activationFailure != null) {
+                    throw new IllegalStateException(String.format(
+                            "Lazy component '%s' failed to activate before", identifier),
+                                                    activationFailure);
+                }
+                if (!activationAllowed) {
+                    throw new IllegalStateException(String.format(
+                            "Lazy component '%s' cannot be activated while container '%s' is not "
+                            + "running",
+                            identifier, ComponentContainer.this.identifier));
+                }
+                try {
+                    init();
+                    start();
+                } catch (LifeCycleException e) {
+                    activationFailure = e;
+                    throw new IllegalStateException(String.format(
+                            "Could not activate lazy component '%s' because: %s", identifier,
+                            e.getMessage()), e);
+                }
+                active = true;
+                logger.info("Activated lazy component " + identifier);
+            }
+        }
+
+        private Object proxy() {
+            synchronized (activationMonitor) {
+                if (proxy == null && !proxyUnavailable) {
+                    Class<?>[] interfaces = DependencyTreeBuilder
+                            .supertypes(component.getClass())
+                            .stream()
+                            .filter(Class::isInterface)
+                            .toArray(Class<?>[]::new);
+                    try {
+                        proxy = Proxy.newProxyInstance(component.getClass().getClassLoader(),
+                                                       interfaces, this::invoke);
+                    } catch (IllegalArgumentException e) {
+                        logger.warn(String.format(
+                                "Cannot create proxy for lazy component, activating it on startup: "
+                                + "%s",
+                                e.getMessage()));
+                        proxyUnavailable = true;
+                    }
+                }
+                return proxy;
+            }
+        }
+
+        private Object invoke(Object target, Method method, Object[] arguments) throws Throwable {
+            // the identity of the proxy must not activate the component, e.g. if kept in a set
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals":
+                        return target == arguments[0];
+                    case "hashCode":
+                        return System.identityHashCode(target);
+                    default:
+                        return String.format("Lazy component '%s'", identifier);
+                }
+            }
+
+            activate();
+            if (!Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                method.setAccessible(true);
+            }
+            try {
+                return method.invoke(component, arguments);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        void resolved(long durationNanos) {
+            synchronized (monitor) {
+                durations[LifeCyclePhase.Resolve.ordinal()] = durationNanos;
+            }
+        }
+
+        long[] getDurations() {
+            synchronized (monitor) {
+                return durations.clone();
+            }
+        }
+
+        private void transitState(LifeCyclePhase phase, LifeCycleStatus start,
+                                  LifeCycleStatus end, ThrowingAction<LifeCycleException> action)
                 throws LifeCycleException {
             synchronized (monitor) {
                 status = start;
             }
+            long startTime = System.nanoTime();
             try {
                 action.tryAccept();
             } catch (Exception e) {
                 throw new LifeCycleException(e);
+            } finally {
+                long duration = System.nanoTime() - startTime;
+                synchronized (monitor) {
+                    durations[phase.ordinal()] = duration;
+                }
+                logger.debug(String.format("Phase %s took %d ms", phase,
+                                           TimeUnit.NANOSECONDS.toMillis(duration)));
             }
             synchronized (monitor) {
                 status = end;
@@ -302,18 +611,113 @@ public class ComponentContainer {
     }
 
     private abstract class StateActivity {
-        boolean forEachController(Function<ComponentController, Boolean> processingFunction) {
-            ArrayList<Object> order;
+        /**
+         * Returns the levels of components in the order of the dependency tree. Unless the
+         * container processes components concurrently, each level contains a single component, so
+         * the components are processed one at a time.
+         */
+        List<List<Object>> levels() {
+            boolean concurrently = parallelism() > 1;
             synchronized (controllerOrder) {
-                order = new ArrayList<>(controllerOrder);
+                if (concurrently && !controllerLevels.isEmpty()) {
+                    return new ArrayList<>(controllerLevels);
+                }
+                return controllerOrder
+                        .stream()
+                        .map(Collections::singletonList)
+                        .collect(Collectors.toList());
+            }
+        }
+
+        /**
+         * Processes the controllers of each level concurrently, waiting for a level to be
+         * processed before proceeding with the next one. Stops at the first level for which the
+         * processing function fails. If a timeout is specified, controllers that take longer are
+         * interrupted and abandoned, so the remaining controllers can be processed.
+         */
+        boolean forEachLevel(List<List<Object>> levels,
+                             Function<ComponentController, Boolean> processingFunction,
+                             long timeoutNanos) {
+            ThreadPoolExecutor executor = lifecycleExecutor;
+            if (executor == null || (parallelism() == 1 && timeoutNanos <= 0)) {
+                for (List<Object> level : levels) {
+                    for (Object componentKey : level) {
+                        if (!processingFunction.apply(controllers.get(componentKey))) {
+                            return false;
+                        }
+                    }
+                }
+                return true;
+            }
+
+            ScheduledExecutorService watchdog = timeoutNanos <= 0 ? null :
+                                                Executors.newSingleThreadScheduledExecutor(
+                                                        threadFactory("watchdog"));
+            try {
+                for (List<Object> level : levels) {
+                    List<FutureTask<Boolean>> results = new ArrayList<>();
+                    for (Object componentKey : level) {
+                        ComponentController controller = controllers.get(componentKey);
+                        FutureTask<Boolean> result =
+                                new FutureTask<>(() -> processingFunction.apply(controller));
+                        // the timeout starts once the controller is processed, not while queued
+                        executor.execute(() -> {
+                            if (watchdog != null) {
+                                watchdog.schedule(() -> abandon(executor, result, componentKey,
+                                                                timeoutNanos),
+                                                  timeoutNanos, TimeUnit.NANOSECONDS);
+                            }
+                            result.run();
+                        });
+                        results.add(result);
+                    }
+
+                    boolean success = true;
+                    for (FutureTask<Boolean> result : results) {
+                        try {
+                            success &= result.get();
+                        } catch (CancellationException e) {
+                            // the controller timed out and has been abandoned
+                        }
+                    }
+                    if (!success) {
+                        return false;
+                    }
+                }
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Interrupted while waiting for components");
+                return false;
+            } catch (ExecutionException e) {
+                logger.error(String.format("Exception processing components: %s",
+                                           e.getCause().getMessage()), e.getCause());
+                return false;
+            } finally {
+                if (watchdog != null) {
+                    watchdog.shutdownNow();
+                }
             }
+        }
 
-            return order
-                    .stream()
-                    .map(componentKey -> processingFunction.apply(controllers.get(componentKey)))
-                    .filter(result -> !result)
-                    .findFirst()
-                    .orElse(true);
+        /**
+         * Interrupts and abandons the processing of the controller if it is still running. Since
+         * the abandoned controller keeps its thread, the pool is grown by one thread to keep
+         * processing the remaining controllers with the same parallelism.
+         */
+        private void abandon(ThreadPoolExecutor executor,
+                             FutureTask<Boolean> result,
+                             Object componentKey,
+                             long timeoutNanos) {
+            if (result.cancel(true)) {
+                logger.warn(String.format("Component '%s' did not finish within %d ms",
+                                          componentKey,
+                                          TimeUnit.NANOSECONDS.toMillis(timeoutNanos)));
+                synchronized (executor) {
+                    executor.setMaximumPoolSize(executor.getMaximumPoolSize() + 1);
+                    executor.setCorePoolSize(executor.getCorePoolSize() + 1);
+                }
+            }
         }
 
         abstract boolean process();
@@ -330,7 +734,18 @@ public class ComponentContainer {
     private class Initializing extends StateActivity {
         @Override
         public boolean process() {
-            return forEachController(controller -> {
+            List<List<Object>> levels = levels();
+            if (parallelism() > 1) {
+                // components do not depend on each other during initialization
+                List<Object> order = new ArrayList<>();
+                levels.forEach(order::addAll);
+                levels = Collections.singletonList(order);
+            }
+            return forEachLevel(levels, controller -> {
+                if (controller.isLazy()) {
+                    // initialized on activation
+                    return true;
+                }
                 try {
                     controller.init();
                     logger.info("Initialized component " + controller.getIdentifier());
@@ -341,23 +756,25 @@ public class ComponentContainer {
                 }
 
                 return false;
-            });
+            }, 0);
         }
     }
 
     private class Initialized extends StateActivity {
         @Override
         public boolean process() {
-            List<Object> componentOrder;
+            DependencyTree tree;
             try {
-                componentOrder = DependencyTreeBuilder
-                        .buildTree(controllers
+                tree = DependencyTreeBuilder
+                        .buildDependencyTree(controllers
                                            .entrySet()
                                            .stream()
                                            .collect(Collectors.toMap(Map.Entry::getKey,
                                                                      entry -> entry
                                                                              .getValue().component))
-                                , type -> type);
+                                , type -> type,
+                                (componentKey, type) -> controllers.get(componentKey)
+                                                                   .dependency(type));
             } catch (DependencyException e) {
                 logger.error(String.format("Dependency exception detected: %s", e.getMessage()));
                 return false;
@@ -365,7 +782,13 @@ public class ComponentContainer {
 
             synchronized (controllerOrder) {
                 controllerOrder.clear();
-                controllerOrder.addAll(componentOrder);
+                controllerOrder.addAll(tree.getOrder());
+                controllerLevels.clear();
+                controllerLevels.addAll(tree.getLevels());
+                for (Object componentKey : controllerOrder) {
+                    controllerDependencies.put(componentKey, tree.getDependencies(componentKey));
+                    controllers.get(componentKey).resolved(tree.getResolveNanos(componentKey));
+                }
             }
 
             logger.info("All components initialized");
@@ -377,8 +800,17 @@ public class ComponentContainer {
     private class Starting extends StateActivity {
         @Override
         public boolean process() {
-            return forEachController(controller -> {
+            activationAllowed = true;
+            return forEachLevel(levels(), controller -> {
                 try {
+                    if (controller.isLazy()) {
+                        if (controller.isActivationRequired()) {
+                            controller.activate();
+                        } else {
+                            logger.info("Deferred lazy component " + controller.getIdentifier());
+                        }
+                        return true;
+                    }
                     controller.start();
                     logger.info("Started component " + controller.getIdentifier());
                     return true;
@@ -388,7 +820,7 @@ public class ComponentContainer {
                 }
 
                 return false;
-            });
+            }, 0);
         }
     }
 
@@ -412,8 +844,14 @@ public class ComponentContainer {
     private class Stopping extends StateActivity {
         @Override
         public boolean process() {
-            return forEachController(controller -> {
-
+            activationAllowed = false;
+            List<List<Object>> levels = levels();
+            // dependants are processed before their dependencies
+            Collections.reverse(levels);
+            return forEachLevel(levels, controller -> {
+                if (controller.isDormant()) {
+                    return true;
+                }
                 try {
                     controller.stop();
                     if (controller.getStatus() == LifeCycleStatus.Stopped) {
@@ -424,7 +862,7 @@ public class ComponentContainer {
                                                controller.getIdentifier(), e.getMessage()), e);
                 }
                 return true; // we ignore the exception - all components must shut down
-            });
+            }, shutdownTimeoutNanos());
         }
     }
 
@@ -438,7 +876,13 @@ public class ComponentContainer {
     private class Destroying extends StateActivity {
         @Override
         public boolean process() {
-            return forEachController(controller -> {
+            List<List<Object>> levels = levels();
+            // dependants are processed before their dependencies
+            Collections.reverse(levels);
+            return forEachLevel(levels, controller -> {
+                if (controller.isDormant()) {
+                    return true;
+                }
                 try {
                     controller.destroy();
                     if (controller.getStatus() == LifeCycleStatus.Destroyed) {
@@ -449,7 +893,7 @@ public class ComponentContainer {
                                                controller.getIdentifier(), e.getMessage()), e);
                 }
                 return true; // we ignore the exception - all components must shut down
-            });
+            }, shutdownTimeoutNanos());
         }
     }
 
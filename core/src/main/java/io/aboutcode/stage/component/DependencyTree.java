@@ -0,0 +1,78 @@
+package io.aboutcode.stage.component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The result of resolving the dependencies of a set of elements, created by the {@link
+ * DependencyTreeBuilder}. Besides the order in which the elements should be initialized, this
+ * contains the dependencies each element resolved and its depth in the tree: elements without
+ * dependencies are in level zero, all other elements are in the level following the deepest level
+ * of their dependencies. Hence the elements of one level do not depend on each other.
+ */
+final class DependencyTree {
+    private final LinkedHashMap<Object, Integer> levels = new LinkedHashMap<>();
+    private final Map<Object, Set<Object>> dependencies = new HashMap<>();
+    private final Map<Object, Long> resolveNanos = new HashMap<>();
+
+    DependencyTree() {
+    }
+
+    /**
+     * Returns the identifiers of all elements in the order in which they should be initialized.
+     */
+    List<Object> getOrder() {
+        return new ArrayList<>(levels.keySet());
+    }
+
+    /**
+     * Returns the identifiers of all elements grouped by their level. The elements of a level may
+     * be processed concurrently once the elements of all previous levels have been processed. The
+     * identifiers of each level are in the order returned by {@link #getOrder()}.
+     */
+    List<List<Object>> getLevels() {
+        List<List<Object>> result = new ArrayList<>();
+        for (Map.Entry<Object, Integer> entry : levels.entrySet()) {
+            int level = entry.getValue();
+            while (result.size() <= level) {
+                result.add(new ArrayList<>());
+            }
+            result.get(level).add(entry.getKey());
+        }
+        return result;
+    }
+
+    /**
+     * Returns the identifiers of the elements the specified element resolved as dependencies.
+     */
+    Set<Object> getDependencies(Object identifier) {
+        return dependencies.getOrDefault(identifier, Collections.emptySet());
+    }
+
+    /**
+     * Returns the time the specified element took to resolve its dependencies, excluding the time
+     * taken by its dependencies to resolve theirs.
+     */
+    long getResolveNanos(Object identifier) {
+        return resolveNanos.getOrDefault(identifier, 0L);
+    }
+
+    boolean contains(Object identifier) {
+        return levels.containsKey(identifier);
+    }
+
+    int getLevel(Object identifier) {
+        return levels.get(identifier);
+    }
+
+    void add(Object identifier, int level, Set<Object> dependencies, long resolveNanos) {
+        this.levels.put(identifier, level);
+        this.dependencies.put(identifier, Collections.unmodifiableSet(dependencies));
+        this.resolveNanos.put(identifier, resolveNanos);
+    }
+}
@@ -6,14 +6,18 @@ import io.aboutcode.stage.dependency.DependencyContext;
 import io.aboutcode.stage.dependency.DependencyException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -21,6 +25,26 @@ import java.util.stream.Collectors;
  * This allows creating a tree of dependencies, with dependencies having dependencies themselves.
  */
 class DependencyTreeBuilder {
+    // all classes and interfaces instances of a class are assignable to, computed once per class
+    private static final ClassValue<List<Class<?>>> SUPERTYPES = new ClassValue<List<Class<?>>>() {
+        @Override
+        protected List<Class<?>> computeValue(Class<?> type) {
+            Set<Class<?>> supertypes = new LinkedHashSet<>();
+            Deque<Class<?>> pending = new ArrayDeque<>();
+            pending.add(type);
+            while (!pending.isEmpty()) {
+                Class<?> current = pending.poll();
+                if (supertypes.add(current)) {
+                    if (current.getSuperclass() != null) {
+                        pending.add(current.getSuperclass());
+                    }
+                    pending.addAll(Arrays.asList(current.getInterfaces()));
+                }
+            }
+            return new ArrayList<>(supertypes);
+        }
+    };
+
     /**
      * Creates the tree of dependencies using the elements specified at construction.
      *
@@ -37,19 +61,95 @@ class DependencyTreeBuilder {
     static List<Object> buildTree(Map<Object, DependencyAware> elements,
                                   Function<Object, Object> defaultDependencyIdentifierCreator)
             throws DependencyException {
-        final LinkedHashSet<Object> processedElements = new LinkedHashSet<>();
+        return buildDependencyTree(elements, defaultDependencyIdentifierCreator).getOrder();
+    }
+
+    /**
+     * Creates the tree of dependencies using the elements specified at construction, including
+     * the levels of the tree and the dependencies of each element.
+     *
+     * @param elements                           The elements to compile a dependencie tree from
+     * @param defaultDependencyIdentifierCreator Used to generate the default identifier for a type
+     *                                           if multiple instances of the type have been added
+     *                                           to the container
+     *
+     * @return The tree of dependencies
+     *
+     * @throws DependencyException Thrown if a circular dependency is detected or if a required
+     *                             dependency could not be found
+     */
+    static DependencyTree buildDependencyTree(
+            Map<Object, DependencyAware> elements,
+            Function<Object, Object> defaultDependencyIdentifierCreator)
+            throws DependencyException {
+        return buildDependencyTree(elements, defaultDependencyIdentifierCreator,
+                                   (identifier, type) -> elements.get(identifier));
+    }
+
+    /**
+     * Creates the tree of dependencies using the elements specified at construction, handing out
+     * the objects returned by the specified provider to the elements that depend on an element
+     * instead of the element itself.
+     *
+     * @param elements                           The elements to compile a dependencie tree from
+     * @param defaultDependencyIdentifierCreator Used to generate the default identifier for a type
+     *                                           if multiple instances of the type have been added
+     *                                           to the container
+     * @param dependencyProvider                 Returns the object to hand out for the element
+     *                                           with the specified identifier if it is retrieved
+     *                                           as the specified type, which has to be an
+     *                                           instance of that type
+     *
+     * @return The tree of dependencies
+     *
+     * @throws DependencyException Thrown if a circular dependency is detected or if a required
+     *                             dependency could not be found
+     */
+    static DependencyTree buildDependencyTree(
+            Map<Object, DependencyAware> elements,
+            Function<Object, Object> defaultDependencyIdentifierCreator,
+            BiFunction<Object, Class<?>, Object> dependencyProvider)
+            throws DependencyException {
+        final DependencyTree tree = new DependencyTree();
+        final Map<Class<?>, List<Object>> typeIndex = indexByType(elements);
         for (Object identifier : elements.keySet()) {
-            process(identifier, elements, new ArrayDeque<>(), processedElements,
-                    defaultDependencyIdentifierCreator);
+            process(identifier, elements, typeIndex, new ArrayDeque<>(), tree,
+                    defaultDependencyIdentifierCreator, dependencyProvider);
         }
-        return new ArrayList<>(processedElements);
+        return tree;
+    }
+
+    /**
+     * Returns all classes and interfaces instances of the specified class are assignable to.
+     */
+    static List<Class<?>> supertypes(Class<?> type) {
+        return SUPERTYPES.get(type);
+    }
+
+    /**
+     * Maps every class and interface the specified elements are assignable to to the identifiers
+     * of these elements, so dependencies of a type can be found without checking every element.
+     */
+    private static Map<Class<?>, List<Object>> indexByType(Map<Object, DependencyAware> elements) {
+        Map<Class<?>, List<Object>> typeIndex = new HashMap<>();
+        synchronized (elements) {
+            for (Entry<Object, DependencyAware> entry : elements.entrySet()) {
+                for (Class<?> type : SUPERTYPES.get(entry.getValue().getClass())) {
+                    typeIndex.computeIfAbsent(type, ignored -> new ArrayList<>())
+                             .add(entry.getKey());
+                }
+            }
+        }
+        return typeIndex;
     }
 
     private static void process(Object identifier,
                                 Map<Object, DependencyAware> allElements,
+                                Map<Class<?>, List<Object>> typeIndex,
                                 Deque<Object> currentElementStack,
-                                LinkedHashSet<Object> processedElements,
-                                Function<Object, Object> defaultDependencyIdentifierCreator)
+                                DependencyTree processedElements,
+                                Function<Object, Object> defaultDependencyIdentifierCreator,
+                                BiFunction<Object, Class<?>, Object> dependencyProvider)
             throws DependencyException {
         if (!processedElements.contains(identifier)) {
             if (currentElementStack.contains(identifier)) {
@@ -64,6 +164,12 @@ class DependencyTreeBuilder {
             synchronized (allElements) {
                 element = allElements.get(identifier);
             }
+            // the level of this element is one above the deepest level of its dependencies
+            final int[] level = {0};
+            final Set<Object> dependencies = new LinkedHashSet<>();
+            // time spent resolving dependencies of dependencies is not accounted to this element
+            final long[] nestedNanos = {0};
+            long startTime = System.nanoTime();
 
             // create dependency context
             DependencyContext dependencyContext = new DependencyContext() {
@@ -74,6 +180,7 @@ class DependencyTreeBuilder {
                 }
 
                 @Override
+                @SuppressWarnings("unchecked")
                 public <DependencyT> DependencyT retrieveDependency(Class<DependencyT> type,
                                                                     boolean required)
                         throws DependencyException {
@@ -90,11 +197,12 @@ class DependencyTreeBuilder {
                         return null;
                     }
 
+                    Object componentIdentifier;
                     DependencyT dependency;
                     if (allDependencies.size() > 1) {
                         // let's try to retrieve the default dependency for this type
-                        dependency = allDependencies
-                                .get(defaultDependencyIdentifierCreator.apply(type));
+                        componentIdentifier = defaultDependencyIdentifierCreator.apply(type);
+                        dependency = allDependencies.get(componentIdentifier);
 
                         // nope, we need to bail out
                         if (dependency == null) {
@@ -103,22 +211,14 @@ class DependencyTreeBuilder {
                                     type.getName(), identifier));
                         }
                     } else {
-                        dependency = allDependencies.values().iterator().next();
+                        Entry<Object, DependencyT> entry = allDependencies.entrySet().iterator()
+                                                                          .next();
+                        componentIdentifier = entry.getKey();
+                        dependency = entry.getValue();
                     }
 
-                    Object componentIdentifier = null;
-                    synchronized (allElements) {
-                        for (Entry<Object, DependencyAware> entry : allElements.entrySet()) {
-                            if (entry.getValue().equals(dependency)) {
-                                componentIdentifier = entry.getKey();
-                                break;
-                            }
-                        }
-                    }
-                    assert componentIdentifier != null;
-                    process(componentIdentifier, allElements, currentElementStack,
-                            processedElements, defaultDependencyIdentifierCreator);
-                    return dependency;
+                    processDependency(componentIdentifier);
+                    return (DependencyT) dependencyProvider.apply(componentIdentifier, type);
                 }
 
                 @Override
@@ -142,51 +242,52 @@ class DependencyTreeBuilder {
                                             .getName()));
                         } else if (required) { // means that the element is assignable from clazz
                             // recursively resolve dependencies for this element
-                            process(componentIdentifier, allElements, currentElementStack,
-                                    processedElements, defaultDependencyIdentifierCreator);
-                            returner = (DependencyT) element;
+                            processDependency(componentIdentifier);
+                            returner = (DependencyT) dependencyProvider
+                                    .apply(componentIdentifier, type);
                         }
                     }
                     return returner;
                 }
 
                 @Override
+                @SuppressWarnings("unchecked")
                 public <DependencyT> Set<DependencyT> retrieveDependencies(Class<DependencyT> type)
                         throws DependencyException {
-                    Set<DependencyT> allDependencies = new HashSet<>(
-                            findDependencies(type).values());
-                    for (DependencyT dependency : allDependencies) {
-                        Object componentIdentifier = null;
-                        synchronized (allElements) {
-                            for (Entry<Object, DependencyAware> entry : allElements
-                                    .entrySet()) {
-                                if (entry.getValue().equals(dependency)) {
-                                    componentIdentifier = entry.getKey();
-                                }
-                            }
-                        }
-                        assert componentIdentifier != null;
-                        process(componentIdentifier, allElements, currentElementStack,
-                                processedElements, defaultDependencyIdentifierCreator);
+                    Map<Object, DependencyT> allDependencies = findDependencies(type);
+                    Set<DependencyT> result = new HashSet<>();
+                    for (Object componentIdentifier : allDependencies.keySet()) {
+                        processDependency(componentIdentifier);
+                        result.add((DependencyT) dependencyProvider
+                                .apply(componentIdentifier, type));
                     }
-                    return allDependencies;
+                    return result;
+                }
+
+                private void processDependency(Object componentIdentifier)
+                        throws DependencyException {
+                    long nestedStartTime = System.nanoTime();
+                    process(componentIdentifier, allElements, typeIndex, currentElementStack,
+                            processedElements, defaultDependencyIdentifierCreator,
+                            dependencyProvider);
+                    nestedNanos[0] += System.nanoTime() - nestedStartTime;
+                    level[0] = Math.max(level[0],
+                                        processedElements.getLevel(componentIdentifier) + 1);
+                    dependencies.add(componentIdentifier);
                 }
 
                 @SuppressWarnings("unchecked")
                 private <DependencyT> Map<Object, DependencyT> findDependencies(
                         Class<DependencyT> clazz) {
-                    Map<Object, DependencyAware> elements;
+                    Map<Object, DependencyT> result = new LinkedHashMap<>();
                     synchronized (allElements) {
-                        elements = new HashMap<>(allElements);
+                        for (Object componentIdentifier : typeIndex
+                                .getOrDefault(clazz, Collections.emptyList())) {
+                            result.put(componentIdentifier,
+                                       (DependencyT) allElements.get(componentIdentifier));
+                        }
                     }
-                    return elements
-                            .entrySet()
-                            .stream()
-                            .filter(entry -> clazz.isAssignableFrom(entry.getValue().getClass()))
-                            .collect(Collectors.toMap(
-                                    Entry::getKey,
-                                    entry -> (DependencyT) entry.getValue()
-                            ));
+                    return result;
                 }
             };
 
@@ -199,7 +300,8 @@ class DependencyTreeBuilder {
             // resolve implemented method
             element.resolve(dependencyContext);
 
-            processedElements.add(currentElementStack.pop());
+            processedElements.add(currentElementStack.pop(), level[0], dependencies,
+                                  System.nanoTime() - startTime - nestedNanos[0]);
         }
     }
 }
@@ -0,0 +1,30 @@
+package io.aboutcode.stage.component;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <p>{@link Component}s of a class annotated with this are activated lazily by the {@link
+ * ComponentContainer}: their dependencies are resolved along with all other components, but the
+ * component is only initialized and started the first time another component invokes one of its
+ * methods. Components that are never used are neither initialized, started, stopped nor
+ * destroyed.</p>
+ * <p>To defer activation, dependants do not receive the component itself but a proxy that
+ * implements all interfaces of the component. Hence dependants have to retrieve lazy components by
+ * one of their interfaces. If a dependant retrieves a lazy component by its class, it receives the
+ * component itself, which is then activated when the container starts, just like any other
+ * component.</p>
+ * <p>Note that unlike other components, the dependencies of a lazy component are resolved before
+ * it is initialized. A lazy component can only be activated while the container is starting or
+ * running; using it afterwards results in an {@link IllegalStateException}. Since lazy components
+ * keep their place in the dependency tree, they are stopped before the components they depend
+ * on.</p>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+public @interface Lazy {
+}
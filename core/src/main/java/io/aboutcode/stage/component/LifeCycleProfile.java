@@ -0,0 +1,167 @@
+package io.aboutcode.stage.component;
+
+import io.aboutcode.stage.lifecycle.LifeCyclePhase;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>The time each component of a {@link ComponentContainer} spent in each phase of its
+ * lifecycle, as wall time measured by the container. A profile is a snapshot: phases a component
+ * passes through after the profile has been created are not reflected.</p>
+ *
+ * <p>Besides the durations, the profile contains the dependencies of each component, which allows
+ * determining the critical path of the startup: the chain of dependencies with the longest
+ * accumulated start time. Since a component can only be started after its dependencies, this is a
+ * lower bound for the time needed to start all components, even if they are started
+ * concurrently.</p>
+ */
+public final class LifeCycleProfile {
+    private final List<Object> components;
+    private final Map<Object, long[]> durations;
+    private final Map<Object, Set<Object>> dependencies;
+
+    LifeCycleProfile(List<Object> components, Map<Object, long[]> durations,
+                     Map<Object, Set<Object>> dependencies) {
+        this.components = Collections.unmodifiableList(new ArrayList<>(components));
+        this.durations = new HashMap<>(durations);
+        this.dependencies = new HashMap<>(dependencies);
+    }
+
+    /**
+     * Returns the identifiers of all components in the order in which they are started. Before the
+     * dependencies have been resolved, this is the order in which the components were added.
+     *
+     * @return The identifiers of all components
+     */
+    public List<Object> getComponents() {
+        return components;
+    }
+
+    /**
+     * Returns the time the specified component spent in the specified phase.
+     *
+     * @param component The identifier of the component
+     * @param phase     The phase to return the duration of
+     *
+     * @return The duration in nanoseconds or 0 if the component has not passed the phase
+     */
+    public long getDurationNanos(Object component, LifeCyclePhase phase) {
+        long[] componentDurations = durations.get(component);
+        return componentDurations == null ? 0 : componentDurations[phase.ordinal()];
+    }
+
+    /**
+     * Returns the time all components together spent in the specified phase.
+     *
+     * @param phase The phase to return the duration of
+     *
+     * @return The accumulated duration in nanoseconds
+     */
+    public long getDurationNanos(LifeCyclePhase phase) {
+        long result = 0;
+        for (Object component : components) {
+            result += getDurationNanos(component, phase);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the identifiers of the components the specified component depends on.
+     *
+     * @param component The identifier of the component
+     *
+     * @return The identifiers of the dependencies, which is empty before the dependencies have been
+     * resolved
+     */
+    public Set<Object> getDependencies(Object component) {
+        return dependencies.getOrDefault(component, Collections.emptySet());
+    }
+
+    /**
+     * Returns the chain of dependencies with the longest accumulated start time, starting with the
+     * component that has no dependencies.
+     *
+     * @return The identifiers of the components on the critical path
+     */
+    public List<Object> getCriticalPath() {
+        // components are ordered such that dependencies precede their dependants
+        Map<Object, Long> pathNanos = new HashMap<>();
+        Map<Object, Object> predecessors = new HashMap<>();
+        Object last = null;
+        for (Object component : components) {
+            long longestDependency = 0;
+            for (Object dependency : getDependencies(component)) {
+                Long dependencyNanos = pathNanos.get(dependency);
+                if (dependencyNanos != null && dependencyNanos >= longestDependency) {
+                    longestDependency = dependencyNanos;
+                    predecessors.put(component, dependency);
+                }
+            }
+            long nanos = longestDependency + getDurationNanos(component, LifeCyclePhase.Start);
+            pathNanos.put(component, nanos);
+            if (last == null || nanos > pathNanos.get(last)) {
+                last = component;
+            }
+        }
+
+        List<Object> result = new ArrayList<>();
+        for (Object component = last; component != null; component = predecessors.get(component)) {
+            result.add(component);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * Returns the accumulated start time of the components on the critical path.
+     *
+     * @return The start time of the critical path in nanoseconds
+     *
+     * @see #getCriticalPath()
+     */
+    public long getCriticalPathNanos() {
+        long result = 0;
+        for (Object component : getCriticalPath()) {
+            result += getDurationNanos(component, LifeCyclePhase.Start);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a human readable report of the durations of all components in milliseconds,
+     * followed by the critical path.
+     *
+     * @return The report of this profile
+     */
+    @Override
+    public String toString() {
+        int width = "Component".length();
+        for (Object component : components) {
+            width = Math.max(width, String.valueOf(component).length());
+        }
+        StringBuilder report = new StringBuilder(String.format("%-" + width + "s", "Component"));
+        for (LifeCyclePhase phase : LifeCyclePhase.values()) {
+            report.append(String.format(" %10s", phase));
+        }
+        report.append('\n');
+        for (Object component : components) {
+            report.append(String.format("%-" + width + "s", component));
+            for (LifeCyclePhase phase : LifeCyclePhase.values()) {
+                report.append(String.format(" %10.1f", millis(getDurationNanos(component, phase))));
+            }
+            report.append('\n');
+        }
+        report.append(String.format("Critical path (%.1f ms): %s", millis(getCriticalPathNanos()),
+                                    getCriticalPath()));
+        return report.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
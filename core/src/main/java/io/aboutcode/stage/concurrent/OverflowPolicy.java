@@ -0,0 +1,28 @@
+package io.aboutcode.stage.concurrent;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Defines how a {@link PooledTopicExecutor} with bounded topic queues treats tasks that are
+ * submitted to a topic whose queue is already full. Subscription managers with bounded subscriber
+ * lanes apply it in the same way to events delivered to a full lane.
+ */
+public enum OverflowPolicy {
+    /**
+     * The submitting thread is blocked until the topic's queue has room for the task. Note that
+     * tasks submitting to their own topic will deadlock under this policy once the queue is full.
+     */
+    BLOCK,
+    /**
+     * The oldest task waiting in the topic's queue is discarded to make room for the task.
+     */
+    DROP_OLDEST,
+    /**
+     * The submitted task is discarded.
+     */
+    DROP_NEWEST,
+    /**
+     * The submission fails with a {@link RejectedExecutionException}.
+     */
+    FAIL
+}
@@ -1,22 +1,90 @@
 package io.aboutcode.stage.concurrent;
 
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.Map;
+import io.aboutcode.stage.metrics.TopicMetrics;
 import java.util.Queue;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * This is the default implementation of a {@link TopicExecutor} and internally uses a threadpool
- * for execution. The threadpool is shared among all registered topics.
+ * <p>This is the default implementation of a {@link TopicExecutor} and internally uses a
+ * threadpool for execution. The threadpool is shared among all registered topics.</p>
+ *
+ * <p>Submission of tasks does not block: topics are kept in a concurrent map and each topic owns a
+ * lock-free queue that is processed by at most one thread at a time. Whichever thread manages to
+ * activate a topic schedules it on the threadpool, so the order of submission is retained per
+ * topic while different topics are processed in parallel. By default, the queue of a topic is
+ * discarded as soon as it runs empty and is re-created on the next submission to that topic, so
+ * the executor does not accumulate topics over its lifetime.</p>
+ *
+ * <p>By default, all tasks run on the common pool and topic queues are unbounded. Use a {@link
+ * PooledTopicExecutorBuilder} to run on a dedicated threadpool or to limit the number of tasks
+ * waiting per topic. The builder also allows draining multiple tasks of a topic per activation,
+ * which greatly reduces the scheduling overhead for busy topics. Only bounded queues with {@link
+ * OverflowPolicy#BLOCK} make submitting threads wait. Finally, the builder allows reporting the
+ * queue depth and the execution time of tasks per topic to {@link TopicMetrics}. Metrics of a
+ * {@link TopicExecutor.Subtopic} are reported under its parent topic, except for the queue depth,
+ * which would be overwritten by the other subtopics of the same parent.</p>
  */
 public final class PooledTopicExecutor implements TopicExecutor {
     private static final Logger LOGGER = LoggerFactory.getLogger(PooledTopicExecutor.class);
-    private static final String DEFAULT_TOPIC = null;
-    private final Map<Object, ProcessingQueue> topics = new HashMap<>();
-    private final Object monitor = new Object();
+    // ConcurrentHashMap does not support null keys, so the default topic is mapped to a marker
+    private static final Object DEFAULT_TOPIC = new Object();
+    private static final int RETIRED = -1;
+    // mirrors the pool selection of CompletableFuture.runAsync, which was used previously
+    private static final Executor DEFAULT_POOL = ForkJoinPool.getCommonPoolParallelism() > 1
+                                                 ? ForkJoinPool.commonPool()
+                                                 : task -> new Thread(task).start();
+    private final ConcurrentMap<Object, ProcessingQueue> topics = new ConcurrentHashMap<>();
+    private final Executor pool;
+    private final int queueCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private final int batchSize;
+    private final long batchNanos;
+    private final boolean evictIdleTopics;
+    // null if no metrics are recorded
+    private final TopicMetrics metrics;
+
+    /**
+     * Creates a new executor that uses the common pool for processing of tasks.
+     */
+    public PooledTopicExecutor() {
+        this(null, Integer.MAX_VALUE, OverflowPolicy.BLOCK, 1, Long.MAX_VALUE, true, null);
+    }
+
+    PooledTopicExecutor(Executor pool,
+                        int queueCapacity,
+                        OverflowPolicy overflowPolicy,
+                        int batchSize,
+                        long batchNanos,
+                        boolean evictIdleTopics,
+                        TopicMetrics metrics) {
+        this.pool = pool == null ? DEFAULT_POOL : pool;
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
+        this.batchSize = batchSize;
+        this.batchNanos = batchNanos;
+        this.evictIdleTopics = evictIdleTopics;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the number of topics this executor currently keeps a queue for. If idle topics are
+     * evicted, this is the number of topics with pending or running tasks.
+     *
+     * @return The number of topics currently known to this executor
+     */
+    public int getTopicCount() {
+        return topics.size();
+    }
 
     /**
      * Executes the specified task on the default topic.
@@ -27,62 +95,215 @@ public final class PooledTopicExecutor implements TopicExecutor {
     }
 
     /**
-     * Executes the specified task on the specified topic with guaranteed order of submission.
+     * Executes the specified task on the specified topic with guaranteed order of submission. If
+     * the topic's queue is full, the task is treated according to the configured {@link
+     * OverflowPolicy}.
+     *
+     * @throws RejectedExecutionException Thrown if the task cannot be accepted for execution
      */
+    @Override
     public void execute(Object topic, Runnable task) {
-        ProcessingQueue queue;
-        synchronized (monitor) {
-            if (!topics.containsKey(topic)) {
-                queue = new ProcessingQueue(topic);
-                topics.put(topic, queue);
-            } else {
-                queue = topics.get(topic);
+        Object key = topic == null ? DEFAULT_TOPIC : topic;
+        while (true) {
+            ProcessingQueue queue = topics.get(key);
+            if (queue == null) {
+                queue = topics.computeIfAbsent(key, ProcessingQueue::new);
+            }
+            if (queue.add(task)) {
+                return;
             }
+            // the queue is being evicted and will be removed from the topics momentarily
+            Thread.yield();
         }
-        queue.add(task);
-        queue.promote(false);
     }
 
-    private class ProcessingQueue {
-        private final Queue<Runnable> queue = new LinkedList<>();
-        private final Object monitor = new Object();
-        private boolean active;
-        private Object topic;
+    private final class ProcessingQueue implements Runnable {
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean active = new AtomicBoolean();
+        // number of threads currently adding tasks or RETIRED once the queue has been evicted
+        private final AtomicInteger producers = new AtomicInteger();
+        // null for unbounded queues, otherwise holds one permit per free slot in the queue
+        private final Semaphore capacity;
+        // null if the queue depth is not reported, since the size of the queue is expensive to
+        // determine
+        private final AtomicInteger depth;
+        // number of pending reports of the queue depth, see reportDepth()
+        private final AtomicInteger depthReports;
+        private final Object topic;
+        // the topic logged and reported to metrics
+        private final Object displayTopic;
 
         private ProcessingQueue(Object topic) {
             this.topic = topic;
+            this.capacity =
+                    queueCapacity == Integer.MAX_VALUE ? null : new Semaphore(queueCapacity);
+            boolean reportDepth = metrics != null && !(topic instanceof Subtopic);
+            this.depth = reportDepth ? new AtomicInteger() : null;
+            this.depthReports = reportDepth ? new AtomicInteger() : null;
+            if (topic == DEFAULT_TOPIC) {
+                this.displayTopic = null;
+            } else if (topic instanceof Subtopic) {
+                this.displayTopic = ((Subtopic) topic).getParentTopic();
+            } else {
+                this.displayTopic = topic;
+            }
         }
 
-        public void add(Runnable task) {
-            synchronized (monitor) {
-                queue.add(task);
+        /**
+         * Returns false if the task could not be added because the queue has been evicted.
+         */
+        private boolean add(Runnable task) {
+            int current;
+            do {
+                current = producers.get();
+                if (current == RETIRED) {
+                    return false;
+                }
+            } while (!producers.compareAndSet(current, current + 1));
+
+            try {
+                if (capacity != null && !capacity.tryAcquire() && !overflow()) {
+                    LOGGER.debug("Discarding task for full topic '{}'", displayTopic());
+                    return true;
+                }
+                queue.offer(task);
+                if (depth != null) {
+                    depth.incrementAndGet();
+                    reportDepth();
+                }
+            } finally {
+                producers.decrementAndGet();
             }
+            promote();
+            return true;
         }
 
-        private void promote(boolean deactivate) {
-            final Runnable nextAction;
-            synchronized (monitor) {
-                if (deactivate) {
-                    active = false;
-                }
-                if (!active && !queue.isEmpty()) {
-                    nextAction = queue.poll();
-                    active = true;
-                } else {
-                    nextAction = null;
+        /**
+         * Returns true if the queue is empty and no thread is adding tasks to it anymore, in which
+         * case the queue will not accept any further tasks.
+         */
+        private boolean retire() {
+            if (producers.compareAndSet(0, RETIRED)) {
+                // tasks added before retiring are visible now and must still be executed
+                if (queue.isEmpty()) {
+                    return true;
                 }
+                producers.set(0);
             }
-            if (nextAction != null) {
-                CompletableFuture.runAsync(() -> {
+            return false;
+        }
+
+        /**
+         * Returns true if the task may be added to the queue after applying the overflow policy.
+         */
+        private boolean overflow() {
+            switch (overflowPolicy) {
+                case BLOCK:
                     try {
-                        nextAction.run();
-                    } catch (Exception e) {
-                        LOGGER.warn(
-                                String.format("Executing action in topic '%s' threw exception: %s",
-                                              topic, e.getMessage()), e);
+                        capacity.acquire();
+                        return true;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException(String.format(
+                                "Interrupted while waiting for room in topic '%s'",
+                                displayTopic()), e);
                     }
-                }).thenAccept(nada -> promote(true));
+                case DROP_OLDEST:
+                    do {
+                        // the permit of the discarded task is taken over by the new one
+                        if (queue.poll() != null) {
+                            if (depth != null) {
+                                depth.decrementAndGet();
+                                reportDepth();
+                            }
+                            LOGGER.debug("Discarding oldest task for full topic '{}'",
+                                         displayTopic());
+                            return true;
+                        }
+                    } while (!capacity.tryAcquire());
+                    return true;
+                case DROP_NEWEST:
+                    return false;
+                case FAIL:
+                default:
+                    throw new RejectedExecutionException(
+                            String.format("Queue for topic '%s' is full", displayTopic()));
+            }
+        }
+
+        private void promote() {
+            if (!queue.isEmpty() && active.compareAndSet(false, true)) {
+                try {
+                    pool.execute(this);
+                } catch (RejectedExecutionException e) {
+                    active.set(false);
+                    throw e;
+                }
+            }
+        }
+
+        private Object displayTopic() {
+            return displayTopic;
+        }
+
+        /**
+         * Reports the current queue depth after it has been changed. Only one thread reports at a
+         * time and reads the depth when reporting, repeating until no change is left unreported,
+         * so the last value reported is always the current depth.
+         */
+        private void reportDepth() {
+            if (depthReports.getAndIncrement() != 0) {
+                // the thread currently reporting picks up this change
+                return;
+            }
+            int reports;
+            do {
+                reports = depthReports.get();
+                metrics.queueDepthChanged(displayTopic(), depth.get());
+            } while (depthReports.addAndGet(-reports) != 0);
+        }
+
+        @Override
+        public void run() {
+            boolean timed = batchNanos != Long.MAX_VALUE;
+            long start = timed ? System.nanoTime() : 0;
+            for (int processed = 0; processed < batchSize; processed++) {
+                Runnable nextAction = queue.poll();
+                if (nextAction == null) {
+                    break;
+                }
+                if (capacity != null) {
+                    capacity.release();
+                }
+                if (depth != null) {
+                    depth.decrementAndGet();
+                    reportDepth();
+                }
+                long taskStart = metrics == null ? 0 : System.nanoTime();
+                boolean failed = false;
+                try {
+                    nextAction.run();
+                } catch (Exception e) {
+                    failed = true;
+                    LOGGER.warn(
+                            String.format("Executing action in topic '%s' threw exception: %s",
+                                          displayTopic(), e.getMessage()), e);
+                }
+                if (metrics != null) {
+                    metrics.executed(displayTopic(), System.nanoTime() - taskStart, failed);
+                }
+                if (timed && System.nanoTime() - start >= batchNanos) {
+                    break;
+                }
+            }
+            if (evictIdleTopics && queue.isEmpty() && retire()) {
+                // the queue stays active so that it is never scheduled again
+                topics.remove(topic, this);
+                return;
             }
+            active.set(false);
+            // tasks added while the batch was running could not activate the topic themselves
+            promote();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,194 @@
+package io.aboutcode.stage.concurrent;
+
+import io.aboutcode.stage.metrics.TopicMetrics;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builder for {@link PooledTopicExecutor}s that need to be sized for a specific load, e.g. by
+ * running on a dedicated threadpool or by bounding the number of tasks that may wait per topic.
+ */
+public final class PooledTopicExecutorBuilder {
+    private final Executor executor;
+    private final int queueCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private final int batchSize;
+    private final long batchNanos;
+    private final boolean evictIdleTopics;
+    private final TopicMetrics metrics;
+
+    private PooledTopicExecutorBuilder(Executor executor,
+                                       int queueCapacity,
+                                       OverflowPolicy overflowPolicy,
+                                       int batchSize,
+                                       long batchNanos,
+                                       boolean evictIdleTopics,
+                                       TopicMetrics metrics) {
+        this.executor = executor;
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
+        this.batchSize = batchSize;
+        this.batchNanos = batchNanos;
+        this.evictIdleTopics = evictIdleTopics;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Creates a new builder that by default uses the common pool and unbounded topic queues, hands
+     * each task to the pool separately and evicts idle topics.
+     *
+     * @return A new builder
+     */
+    public static PooledTopicExecutorBuilder create() {
+        return new PooledTopicExecutorBuilder(null,
+                                              Integer.MAX_VALUE,
+                                              OverflowPolicy.BLOCK,
+                                              1,
+                                              Long.MAX_VALUE,
+                                              true,
+                                              null);
+    }
+
+    /**
+     * Builds the executor as defined by this builder.
+     *
+     * @return The created executor
+     */
+    public PooledTopicExecutor build() {
+        return new PooledTopicExecutor(executor,
+                                       queueCapacity,
+                                       overflowPolicy,
+                                       batchSize,
+                                       batchNanos,
+                                       evictIdleTopics,
+                                       metrics);
+    }
+
+    /**
+     * Sets the threadpool that processes the tasks of all topics.
+     *
+     * @param executor The threadpool to use
+     *
+     * @return This for fluent interface
+     */
+    public PooledTopicExecutorBuilder withExecutor(Executor executor) {
+        return new PooledTopicExecutorBuilder(Objects.requireNonNull(executor),
+                                              queueCapacity,
+                                              overflowPolicy,
+                                              batchSize,
+                                              batchNanos,
+                                              evictIdleTopics,
+                                              metrics);
+    }
+
+    /**
+     * Limits the number of tasks that may wait for execution in each topic. Tasks submitted to a
+     * topic that has reached this limit are treated according to the specified policy.
+     *
+     * @param capacity       The maximum number of waiting tasks per topic
+     * @param overflowPolicy The policy to apply to tasks submitted to a full topic
+     *
+     * @return This for fluent interface
+     */
+    public PooledTopicExecutorBuilder withQueueCapacity(int capacity,
+                                                        OverflowPolicy overflowPolicy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException(
+                    String.format("Queue capacity must be positive but was %d", capacity));
+        }
+        return new PooledTopicExecutorBuilder(executor,
+                                              capacity,
+                                              Objects.requireNonNull(overflowPolicy),
+                                              batchSize,
+                                              batchNanos,
+                                              evictIdleTopics,
+                                              metrics);
+    }
+
+    /**
+     * Allows the thread that activates a topic to execute up to the specified number of queued
+     * tasks of that topic in one go before handing the topic back to the pool. This reduces the
+     * scheduling overhead for busy topics at the expense of fairness between topics.
+     *
+     * @param maxTasks The maximum number of tasks to execute per activation of a topic
+     *
+     * @return This for fluent interface
+     */
+    public PooledTopicExecutorBuilder withBatchSize(int maxTasks) {
+        if (maxTasks < 1) {
+            throw new IllegalArgumentException(
+                    String.format("Batch size must be positive but was %d", maxTasks));
+        }
+        return new PooledTopicExecutorBuilder(executor,
+                                              queueCapacity,
+                                              overflowPolicy,
+                                              maxTasks,
+                                              batchNanos,
+                                              evictIdleTopics,
+                                              metrics);
+    }
+
+    /**
+     * Limits the time the thread that activates a topic may spend executing queued tasks of that
+     * topic before handing the topic back to the pool. The limit is checked after each task, so a
+     * single long running task is never interrupted. This is only relevant if the batch size is
+     * larger than one.
+     *
+     * @param duration The maximum duration of a batch
+     * @param unit     The unit of the duration
+     *
+     * @return This for fluent interface
+     */
+    public PooledTopicExecutorBuilder withBatchDuration(long duration, TimeUnit unit) {
+        if (duration < 1) {
+            throw new IllegalArgumentException(
+                    String.format("Batch duration must be positive but was %d", duration));
+        }
+        return new PooledTopicExecutorBuilder(executor,
+                                              queueCapacity,
+                                              overflowPolicy,
+                                              batchSize,
+                                              unit.toNanos(duration),
+                                              evictIdleTopics,
+                                              metrics);
+    }
+
+    /**
+     * Defines whether the queue of a topic is discarded as soon as it runs empty. This keeps the
+     * memory footprint proportional to the number of topics with pending tasks, which is
+     * recommended if topics are short-lived, e.g. bound to clients. Disabling the eviction avoids
+     * re-creation of queues for a small set of long-lived topics.
+     *
+     * @param evict True if idle topics should be evicted, false otherwise
+     *
+     * @return This for fluent interface
+     */
+    public PooledTopicExecutorBuilder withIdleTopicEviction(boolean evict) {
+        return new PooledTopicExecutorBuilder(executor,
+                                              queueCapacity,
+                                              overflowPolicy,
+                                              batchSize,
+                                              batchNanos,
+                                              evict,
+                                              metrics);
+    }
+
+    /**
+     * Reports the number of tasks waiting per topic and the execution time of each task to the
+     * specified metrics. Without metrics, the executor does not track either.
+     *
+     * @param metrics The metrics to report to
+     *
+     * @return This for fluent interface
+     */
+    public PooledTopicExecutorBuilder withMetrics(TopicMetrics metrics) {
+        return new PooledTopicExecutorBuilder(executor,
+                                              queueCapacity,
+                                              overflowPolicy,
+                                              batchSize,
+                                              batchNanos,
+                                              evictIdleTopics,
+                                              Objects.requireNonNull(metrics));
+    }
+}
@@ -2,24 +2,30 @@ package io.aboutcode.stage.concurrent;
 
 import java.util.Date;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * <p>A waiting condition that allows interested parties to be notified on a signal triggered by
  * another party, even after signalling has already happened. This is commonly used to signal
  * finished execution in a multi-threaded environment.</p>
+ * <p>Waiting threads are kept in a lock-free stack and parked until they are signalled, so
+ * timeouts are honoured with nanosecond precision and no monitor is involved. Once signalled, the
+ * condition stays signalled and waiting returns immediately without allocating.</p>
  * <p>See {@link Condition} for more information on the implemented methods.</p>
  */
 public class SignalCondition implements Condition {
-    private final Object monitor = new Object();
-    private volatile boolean signalled;
+    // marks the stack of waiters once the condition has been signalled
+    private static final Waiter SIGNALLED = new Waiter(null);
+    private final AtomicReference<Waiter> waiters = new AtomicReference<>();
 
     /**
      * @see Condition#await()
      */
     @Override
     public void await() throws InterruptedException {
-        awaitInternal();
+        awaitInternal(false, 0, true);
     }
 
     /**
@@ -27,25 +33,23 @@ public class SignalCondition implements Condition {
      */
     @Override
     public void awaitUninterruptibly() {
-        do {
-            try {
-                awaitInternal();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+        try {
+            awaitInternal(false, 0, false);
+        } catch (InterruptedException e) {
+            // cannot happen for uninterruptible waiting
+            Thread.currentThread().interrupt();
         }
-        while (!signalled);
     }
 
     /**
-     * Always returns 0.
+     * Returns a positive value if the condition has been signalled, even if that happened just when
+     * the timeout elapsed.
      *
      * @see Condition#awaitNanos(long)
      */
     @Override
     public long awaitNanos(long nanosTimeout) throws InterruptedException {
-        awaitInternal(0, nanosTimeout);
-        return 0;
+        return awaitInternal(true, nanosTimeout, true);
     }
 
     /**
@@ -53,48 +57,16 @@ public class SignalCondition implements Condition {
      */
     @Override
     public boolean await(long time, TimeUnit unit) throws InterruptedException {
-        long millis = unit.toMillis(time);
-        long nanos = unit.toNanos(time) - TimeUnit.MILLISECONDS.toNanos(millis);
-        return awaitInternal(millis, nanos);
+        return awaitNanos(unit.toNanos(time)) > 0;
     }
 
     /**
      * @see Condition#awaitUntil(Date)
      */
     @Override
-    public boolean awaitUntil(Date deadline)
-            throws InterruptedException {
-        return awaitInternal(System.currentTimeMillis() - deadline.getTime(), 0);
-    }
-
-    private boolean awaitInternal(long millisecods, long nanos) throws InterruptedException {
-        long millis = millisecods;
-        if (signalled) {
-            return true;
-        }
-
-        if (millis < Long.MAX_VALUE && (nanos > 500000 || nanos > 0 && millis == 0)) {
-            millis++;
-        }
-
-        if (millis == 0) {
-            return awaitInternal();
-        }
-
-        long timeout = System.nanoTime() + millis * 1000000;
-        long remainingMillis = millis;
-        synchronized (monitor) {
-            while (!signalled && remainingMillis > 0) {
-                monitor.wait(remainingMillis);
-                long remainingNanos = timeout - System.nanoTime();
-                remainingMillis = remainingNanos / 1000000;
-                if (remainingNanos % 1000000 > 500000) {
-                    remainingMillis++;
-                }
-            }
-        }
-
-        return signalled;
+    public boolean awaitUntil(Date deadline) throws InterruptedException {
+        return awaitNanos(TimeUnit.MILLISECONDS
+                                  .toNanos(deadline.getTime() - System.currentTimeMillis())) > 0;
     }
 
     /**
@@ -103,27 +75,18 @@ public class SignalCondition implements Condition {
      * @return True if the condition has been signalled, false otherwise.
      */
     public boolean isSignalled() {
-        return signalled;
-    }
-
-    private boolean awaitInternal() throws InterruptedException {
-        synchronized (monitor) {
-            while (!signalled) {
-                monitor.wait();
-            }
-        }
-        return signalled;
+        return waiters.get() == SIGNALLED;
     }
 
     /**
+     * Since the condition stays signalled, this wakes up all waiting threads just like {@link
+     * #signalAll()}.
+     *
      * @see Condition#signal()
      */
     @Override
     public void signal() {
-        synchronized (monitor) {
-            signalled = true;
-            monitor.notify();
-        }
+        signalAll();
     }
 
     /**
@@ -131,9 +94,110 @@ public class SignalCondition implements Condition {
      */
     @Override
     public void signalAll() {
-        synchronized (monitor) {
-            signalled = true;
-            monitor.notifyAll();
+        Waiter waiter = waiters.getAndSet(SIGNALLED);
+        while (waiter != null && waiter != SIGNALLED) {
+            Thread thread = waiter.thread;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+            waiter = waiter.next;
+        }
+    }
+
+    /**
+     * Returns the remaining nanoseconds (or 1 if not timed) once signalled, or a value less than or
+     * equal to zero if the timeout elapsed before.
+     */
+    private long awaitInternal(boolean timed, long nanos, boolean interruptible)
+            throws InterruptedException {
+        if (isSignalled()) {
+            return timed ? Math.max(1, nanos) : 1;
+        }
+        if (interruptible && Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (timed && nanos <= 0) {
+            return nanos;
+        }
+
+        long deadline = timed ? System.nanoTime() + nanos : 0;
+        Waiter waiter = new Waiter(Thread.currentThread());
+        Waiter head;
+        do {
+            head = waiters.get();
+            if (head == SIGNALLED) {
+                return timed ? Math.max(1, deadline - System.nanoTime()) : 1;
+            }
+            waiter.next = head;
+        } while (!waiters.compareAndSet(head, waiter));
+
+        boolean interrupted = false;
+        long remaining = nanos;
+        try {
+            while (!isSignalled()) {
+                if (timed) {
+                    remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        removeWaiter(waiter);
+                        return remaining;
+                    }
+                    LockSupport.parkNanos(this, remaining);
+                } else {
+                    LockSupport.park(this);
+                }
+                if (Thread.interrupted()) {
+                    if (interruptible) {
+                        removeWaiter(waiter);
+                        throw new InterruptedException();
+                    }
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return timed ? Math.max(1, deadline - System.nanoTime()) : 1;
+    }
+
+    /**
+     * Unlinks the specified waiter and any other waiters that gave up waiting from the stack, so
+     * waiting repeatedly with a timeout does not accumulate waiters.
+     */
+    private void removeWaiter(Waiter waiter) {
+        waiter.thread = null;
+        retry:
+        while (true) {
+            Waiter head = waiters.get();
+            if (head == SIGNALLED) {
+                return;
+            }
+            Waiter predecessor = null;
+            for (Waiter current = head, next; current != null; current = next) {
+                next = current.next;
+                if (current.thread != null) {
+                    predecessor = current;
+                } else if (predecessor != null) {
+                    predecessor.next = next;
+                    if (predecessor.thread == null) {
+                        // the predecessor gave up concurrently and may have been unlinked
+                        continue retry;
+                    }
+                } else if (!waiters.compareAndSet(current, next)) {
+                    continue retry;
+                }
+            }
+            return;
+        }
+    }
+
+    private static final class Waiter {
+        private volatile Thread thread;
+        private volatile Waiter next;
+
+        private Waiter(Thread thread) {
+            this.thread = thread;
         }
     }
 }
@@ -15,4 +15,18 @@ public interface TopicExecutor extends Executor {
      * @param task  The task to execute
      */
     void execute(Object topic, Runnable task);
+
+    /**
+     * Topics implementing this only serve to order tasks within a larger topic, e.g. the lane of a
+     * single subscriber of a topic. Executors that report metrics report them under the parent
+     * topic instead of the subtopic itself.
+     */
+    interface Subtopic {
+        /**
+         * Returns the topic this subtopic belongs to.
+         *
+         * @return The topic this subtopic belongs to, may be <code>null</code>
+         */
+        Object getParentTopic();
+    }
 }
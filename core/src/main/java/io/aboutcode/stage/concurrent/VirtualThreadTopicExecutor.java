@@ -0,0 +1,72 @@
+package io.aboutcode.stage.concurrent;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * <p>A {@link TopicExecutor} that processes each topic on a virtual thread. This is suited for
+ * tasks that block, e.g. on database access or network I/O, which would otherwise occupy the
+ * threads of a shared threadpool.</p>
+ *
+ * <p>Virtual threads are only available on Java 21 and later. The executor is looked up at runtime
+ * so that this class can be shipped with the rest of the framework; use {@link #isSupported()} to
+ * check availability before creating an instance.</p>
+ */
+public final class VirtualThreadTopicExecutor implements TopicExecutor {
+    private static final Executor VIRTUAL_THREADS = lookupVirtualThreadExecutor();
+    private final PooledTopicExecutor delegate;
+
+    /**
+     * Creates a new executor that processes each topic on a virtual thread.
+     *
+     * @throws UnsupportedOperationException Thrown if the runtime does not support virtual
+     *                                       threads
+     */
+    public VirtualThreadTopicExecutor() {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException(String.format(
+                    "Virtual threads are not supported by Java runtime %s",
+                    System.getProperty("java.version")));
+        }
+        // blocking a virtual thread is cheap, so a topic is drained completely once activated
+        this.delegate = PooledTopicExecutorBuilder.create()
+                                                  .withExecutor(VIRTUAL_THREADS)
+                                                  .withBatchSize(Integer.MAX_VALUE)
+                                                  .build();
+    }
+
+    /**
+     * Returns whether the current runtime supports virtual threads.
+     *
+     * @return True if virtual threads are supported, false otherwise
+     */
+    public static boolean isSupported() {
+        return VIRTUAL_THREADS != null;
+    }
+
+    private static Executor lookupVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (Executor) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Executes the specified task on the default topic.
+     */
+    @Override
+    public void execute(Runnable task) {
+        delegate.execute(task);
+    }
+
+    /**
+     * Executes the specified task on the specified topic with guaranteed order of submission.
+     */
+    @Override
+    public void execute(Object topic, Runnable task) {
+        delegate.execute(topic, task);
+    }
+}
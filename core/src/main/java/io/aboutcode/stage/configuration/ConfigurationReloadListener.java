@@ -0,0 +1,35 @@
+package io.aboutcode.stage.configuration;
+
+import java.util.Set;
+
+/**
+ * <p>Components implementing this are notified when configuration parameters change while the
+ * application is running, e.g. through the {@link
+ * io.aboutcode.stage.feature.ReloadableConfigurationFileFeature}.</p>
+ *
+ * <p>The new values have already been applied to the configuration parameters, i.e. assigned to
+ * the respective fields of the configuration objects, when a listener is notified. Since values
+ * are assigned and listeners are notified on a thread of the reloading feature, components have to
+ * read reloadable values in a thread safe manner, e.g. by declaring the fields volatile.</p>
+ */
+public interface ConfigurationReloadListener {
+    /**
+     * Returns whether this listener needs to be notified if the configuration parameter with the
+     * specified name changes. Changed parameters no listener is interested in are not applied at
+     * all. By default, listeners are interested in any parameter.
+     *
+     * @param parameterName The name of the changed configuration parameter
+     *
+     * @return True if this listener should be notified, false otherwise
+     */
+    default boolean isInterestedIn(String parameterName) {
+        return true;
+    }
+
+    /**
+     * Invoked after configuration parameters this listener is interested in have been changed.
+     *
+     * @param parameterNames The names of all configuration parameters that have been changed
+     */
+    void configurationReloaded(Set<String> parameterNames);
+}
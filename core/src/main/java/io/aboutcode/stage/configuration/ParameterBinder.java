@@ -0,0 +1,41 @@
+package io.aboutcode.stage.configuration;
+
+import java.util.List;
+
+/**
+ * <p>Creates the {@link ConfigurationParameter}s for all fields annotated with {@link Parameter}
+ * of a specific configuration class without the use of reflection.</p>
+ *
+ * <p>Implementations are generated at compile time by the annotation processor of the stage
+ * processor module. They are named after the class they bind (see {@link
+ * #binderClassName(String)}) and are picked up automatically by the {@link ParameterParser},
+ * which falls back to reflection for classes without a binder.</p>
+ *
+ * @param <TargetT> The type of configuration object this binder creates parameters for
+ */
+public interface ParameterBinder<TargetT> {
+    /**
+     * Returns the name of the binder class for the class with the specified name. The binder
+     * resides in the same package as the class, with the names of any enclosing classes joined by
+     * underscores, e.g. <code>com.example.Outer_Inner_ParameterBinder</code> for the class
+     * <code>com.example.Outer$Inner</code>.
+     *
+     * @param className The binary name of the configuration class
+     *
+     * @return The binary name of the binder class
+     */
+    static String binderClassName(String className) {
+        return className.replace('$', '_') + "_ParameterBinder";
+    }
+
+    /**
+     * Returns the configuration parameters for the annotated fields of the specified configuration
+     * object, in the order in which the fields are declared.
+     *
+     * @param parameterPrefix The prefix to use for all parameters
+     * @param target          The configuration object the parameters assign their values to
+     *
+     * @return The configuration parameters of the configuration object
+     */
+    List<ConfigurationParameter> bind(String parameterPrefix, TargetT target);
+}
@@ -3,6 +3,7 @@ package io.aboutcode.stage.configuration;
 import io.aboutcode.stage.util.FieldAnalysis;
 import io.aboutcode.stage.util.InputConverter;
 import io.aboutcode.stage.util.DefaultTypeConverters;
+import io.aboutcode.stage.util.ThrowingConsumer;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
@@ -17,10 +18,20 @@ import java.util.stream.Stream;
  * <p>This analyses a specified configuration object through introspection and returns a list of
  * {@link ConfigurationParameter}s extracted from its members that are annotated with {@link
  * Parameter}</p>
+ *
+ * <p>If a {@link ParameterBinder} has been generated for the class of the configuration object,
+ * the parameters are created by the binder instead, which does not require reflection.</p>
  */
 // TODO: refactor this to completely use FieldAnalysis
 public final class ParameterParser {
     private static final String TRAILING_DASHES = "-+$";
+    private static final ClassValue<Optional<ParameterBinder<Object>>> BINDERS =
+            new ClassValue<Optional<ParameterBinder<Object>>>() {
+                @Override
+                protected Optional<ParameterBinder<Object>> computeValue(Class<?> type) {
+                    return generatedBinder(type);
+                }
+            };
 
     /**
      * Returns a list of {@link ConfigurationParameter}s for the specified configuration object's
@@ -34,6 +45,11 @@ public final class ParameterParser {
      */
     public static <ResultT> List<ConfigurationParameter> parseParameterClass(String parameterPrefix,
                                                                              ResultT targetObject) {
+        Optional<ParameterBinder<Object>> binder = BINDERS.get(targetObject.getClass());
+        if (binder.isPresent()) {
+            return binder.get().bind(parameterPrefix, targetObject);
+        }
+
         return Stream.of(targetObject.getClass().getDeclaredFields())
                      .filter(ParameterParser::isParameterAnnotated)
                      .map(field -> asConfigurationParameter(parameterPrefix, field, targetObject))
@@ -42,58 +58,178 @@ public final class ParameterParser {
                      .collect(Collectors.toList());
     }
 
-    private static String getTypeName(Class type) {
-        return type.getSimpleName();
-    }
-
-    private static ConfigurationParameter array(Parameter parameter,
-                                                String parameterPrefix,
-                                                FieldAnalysis fieldAnalysis,
-                                                InputConverter inputConverter) {
-        return new ArrayConfigurationParameter(
-                withPrefix(parameterPrefix, parameter.name()),
-                parameter.description(),
-                parameter.mandatory(),
-                getTypeName(fieldAnalysis.getField().getClass()),
-                fieldAnalysis.getTargetObject(),
-                fieldAnalysis.getSpecificClass(),
-                fieldAnalysis.getField(),
-                fieldAnalysis.getDefaultValue(),
-                inputConverter
+    /**
+     * Returns a parameter that accepts a single value, as created for a {@link Parameter}-annotated
+     * field that is neither an array nor a collection. This is used by generated {@link
+     * ParameterBinder}s.
+     *
+     * @param parameterPrefix The prefix to use for the parameter
+     * @param name            The name of the parameter, see {@link Parameter#name()}
+     * @param description     The description of the parameter, see {@link
+     *                        Parameter#description()}
+     * @param mandatory       Whether the parameter is required, see {@link Parameter#mandatory()}
+     * @param type            The type of the field
+     * @param defaultValue    The value of the field, which is assigned if the parameter is absent
+     * @param inputConverter  The converter for the value of the parameter
+     * @param assignment      Assigns the converted value to the field
+     *
+     * @return The parameter
+     */
+    public static ConfigurationParameter singleValue(
+            String parameterPrefix,
+            String name,
+            String description,
+            boolean mandatory,
+            Class<?> type,
+            Object defaultValue,
+            InputConverter<?> inputConverter,
+            ThrowingConsumer<Object, Exception> assignment) {
+        return new DefaultConfigurationParameter(
+                withPrefix(parameterPrefix, name),
+                description,
+                mandatory,
+                getTypeName(type),
+                defaultValue,
+                inputConverter,
+                assignment
         );
     }
 
-    private static ConfigurationParameter singleValue(Parameter parameter,
-                                                      String parameterPrefix,
-                                                      FieldAnalysis fieldAnalysis,
-                                                      InputConverter inputConverter) {
-        return new DefaultConfigurationParameter(
-                withPrefix(parameterPrefix, parameter.name()),
-                parameter.description(),
-                parameter.mandatory(),
-                getTypeName(fieldAnalysis.getSpecificClass()),
-                fieldAnalysis.getTargetObject(),
-                fieldAnalysis.getField(),
-                fieldAnalysis.getDefaultValue(),
-                inputConverter
+    /**
+     * Returns a parameter that accepts multiple values, as created for a {@link
+     * Parameter}-annotated array field. The assignment receives an array of the specified component
+     * type. This is used by generated {@link ParameterBinder}s.
+     *
+     * @param parameterPrefix The prefix to use for the parameter
+     * @param name            The name of the parameter, see {@link Parameter#name()}
+     * @param description     The description of the parameter, see {@link
+     *                        Parameter#description()}
+     * @param mandatory       Whether the parameter is required, see {@link Parameter#mandatory()}
+     * @param componentType   The component type of the field
+     * @param defaultValue    The value of the field, which is assigned if the parameter is absent
+     * @param inputConverter  The converter for each value of the parameter
+     * @param assignment      Assigns the array of converted values to the field
+     *
+     * @return The parameter
+     */
+    public static ConfigurationParameter array(
+            String parameterPrefix,
+            String name,
+            String description,
+            boolean mandatory,
+            Class<?> componentType,
+            Object defaultValue,
+            InputConverter<?> inputConverter,
+            ThrowingConsumer<Object, Exception> assignment) {
+        return new ArrayConfigurationParameter(
+                withPrefix(parameterPrefix, name),
+                description,
+                mandatory,
+                getTypeName(componentType),
+                componentType,
+                defaultValue,
+                inputConverter,
+                assignment
         );
     }
 
-    private static ConfigurationParameter collection(Parameter parameter,
-                                                     String parameterPrefix,
-                                                     FieldAnalysis fieldAnalysis,
-                                                     InputConverter inputConverter) {
+    /**
+     * Returns a parameter that accepts multiple values, as created for a {@link
+     * Parameter}-annotated collection field. The assignment receives a collection of the converted
+     * values, which it has to copy into a collection of the type of the field. This is used by
+     * generated {@link ParameterBinder}s.
+     *
+     * @param parameterPrefix The prefix to use for the parameter
+     * @param name            The name of the parameter, see {@link Parameter#name()}
+     * @param description     The description of the parameter, see {@link
+     *                        Parameter#description()}
+     * @param mandatory       Whether the parameter is required, see {@link Parameter#mandatory()}
+     * @param elementType     The type of the elements of the field
+     * @param defaultValue    The value of the field, which is assigned if the parameter is absent
+     * @param inputConverter  The converter for each value of the parameter
+     * @param assignment      Assigns the collection of converted values to the field
+     *
+     * @return The parameter
+     */
+    public static ConfigurationParameter collection(
+            String parameterPrefix,
+            String name,
+            String description,
+            boolean mandatory,
+            Class<?> elementType,
+            Object defaultValue,
+            InputConverter<?> inputConverter,
+            ThrowingConsumer<Object, Exception> assignment) {
         return new CollectionConfigurationParameter(
-                withPrefix(parameterPrefix, parameter.name()),
-                parameter.description(),
-                parameter.mandatory(),
-                getTypeName(fieldAnalysis.getSpecificClass()),
-                fieldAnalysis.getDefaultValue(),
+                withPrefix(parameterPrefix, name),
+                description,
+                mandatory,
+                getTypeName(elementType),
+                defaultValue,
                 inputConverter,
-                fieldAnalysis
+                assignment
         );
     }
 
+    /**
+     * Returns the converter from {@link DefaultTypeConverters} for the specified type, which is
+     * used for {@link Parameter}s that do not specify an input converter.
+     *
+     * @param type          The type to convert the values to
+     * @param fieldName     The name of the annotated field
+     * @param parameterName The name of the parameter
+     *
+     * @return The converter for the specified type
+     *
+     * @throws IllegalArgumentException Thrown if there is no default converter for the type
+     */
+    public static InputConverter<Object> defaultConverter(Class<?> type, String fieldName,
+                                                          String parameterName) {
+        //noinspection unchecked
+        Optional<InputConverter<Object>> converter = DefaultTypeConverters
+                .getConverter((Class<Object>) type);
+
+        // todo: unclear why orElseThrow is not working - fix
+        if (converter.isPresent()) {
+            return converter.get();
+        } else {
+            throw new IllegalArgumentException(
+                    String.format(
+                            "Could not find default input converter for type '%s' of field '%s' and parameter '%s'",
+                            type.getSimpleName(),
+                            fieldName,
+                            parameterName)
+            );
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Optional<ParameterBinder<Object>> generatedBinder(Class<?> type) {
+        Class<?> binderClass;
+        try {
+            binderClass = Class.forName(ParameterBinder.binderClassName(type.getName()), true,
+                                        type.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            // no binder has been generated for the class, hence reflection is used
+            return Optional.empty();
+        }
+        if (!ParameterBinder.class.isAssignableFrom(binderClass)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of((ParameterBinder<Object>) binderClass.getDeclaredConstructor()
+                                                                    .newInstance());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(
+                    String.format("Could not create binder '%s' because: %s",
+                                  binderClass.getName(), e.getMessage()), e);
+        }
+    }
+
+    private static String getTypeName(Class type) {
+        return type.getSimpleName();
+    }
+
     private static String withPrefix(String parameterPrefix, String name) {
         String result = name;
         if (Objects.nonNull(parameterPrefix) && !parameterPrefix.trim().isEmpty()) {
@@ -113,22 +249,8 @@ public final class ParameterParser {
 
         InputConverter<Object> inputConverter;
         if (annotation.inputConverter() == InputConverter.class) {
-            //noinspection unchecked
-            Optional<InputConverter<Object>> converter = DefaultTypeConverters
-                    .getConverter(fieldAnalysis.getSpecificClass());
-
-            // todo: unclear why orElseThrow is not working - fix
-            if (converter.isPresent()) {
-                inputConverter = converter.get();
-            } else {
-                throw new IllegalArgumentException(
-                        String.format(
-                                "Could not find default input converter for type '%s' of field '%s' and parameter '%s'",
-                                fieldAnalysis.getSpecificClass().getSimpleName(),
-                                field.getName(),
-                                annotation.name())
-                );
-            }
+            inputConverter = defaultConverter(fieldAnalysis.getSpecificClass(), field.getName(),
+                                              annotation.name());
         } else {
             inputConverter = instantiateFrom(annotation.inputConverter());
         }
@@ -136,13 +258,22 @@ public final class ParameterParser {
         ConfigurationParameter result;
         switch (fieldAnalysis.getFieldType()) {
             case ARRAY:
-                result = array(annotation, parameterPrefix, fieldAnalysis, inputConverter);
+                result = array(parameterPrefix, annotation.name(), annotation.description(),
+                               annotation.mandatory(), fieldAnalysis.getSpecificClass(),
+                               fieldAnalysis.getDefaultValue(), inputConverter,
+                               value -> field.set(targetObject, value));
                 break;
             case COLLECTION:
-                result = collection(annotation, parameterPrefix, fieldAnalysis, inputConverter);
+                result = collection(parameterPrefix, annotation.name(), annotation.description(),
+                                    annotation.mandatory(), fieldAnalysis.getSpecificClass(),
+                                    fieldAnalysis.getDefaultValue(), inputConverter,
+                                    fieldAnalysis::assign);
                 break;
             case SINGLE_VALUE:
-                result = singleValue(annotation, parameterPrefix, fieldAnalysis, inputConverter);
+                result = singleValue(parameterPrefix, annotation.name(), annotation.description(),
+                                     annotation.mandatory(), fieldAnalysis.getSpecificClass(),
+                                     fieldAnalysis.getDefaultValue(), inputConverter,
+                                     value -> field.set(targetObject, value));
                 break;
             default:
                 result = null;
@@ -187,7 +318,7 @@ public final class ParameterParser {
     private static class CollectionConfigurationParameter extends ConfigurationParameter {
         private final Object defaultValue;
         private final InputConverter inputConverter;
-        private final FieldAnalysis fieldAnalysis;
+        private final ThrowingConsumer<Object, Exception> assignment;
 
         private CollectionConfigurationParameter(String name,
                                                  String description,
@@ -195,12 +326,12 @@ public final class ParameterParser {
                                                  String typeName,
                                                  Object defaultValue,
                                                  InputConverter inputConverter,
-                                                 FieldAnalysis fieldAnalysis
+                                                 ThrowingConsumer<Object, Exception> assignment
         ) {
             super(name, description, mandatory, typeName);
             this.defaultValue = defaultValue;
             this.inputConverter = inputConverter;
-            this.fieldAnalysis = fieldAnalysis;
+            this.assignment = assignment;
         }
 
         @Override
@@ -218,7 +349,7 @@ public final class ParameterParser {
             }
 
             try {
-                fieldAnalysis.assign(collection);
+                assignment.acceptThrowing(collection);
             } catch (Exception e) {
                 throw new IllegalArgumentException(
                         String.format(
@@ -233,27 +364,24 @@ public final class ParameterParser {
     }
 
     private static class ArrayConfigurationParameter extends ConfigurationParameter {
-        private final Object targetObject;
         private final Class arrayType;
-        private final Field field;
         private final Object defaultValue;
         private final InputConverter inputConverter;
+        private final ThrowingConsumer<Object, Exception> assignment;
 
         private ArrayConfigurationParameter(String name,
                                             String description,
                                             boolean mandatory,
                                             String typeName,
-                                            Object targetObject,
                                             Class arrayType,
-                                            Field field,
                                             Object defaultValue,
-                                            InputConverter inputConverter) {
+                                            InputConverter inputConverter,
+                                            ThrowingConsumer<Object, Exception> assignment) {
             super(name, description, mandatory, typeName);
-            this.targetObject = targetObject;
             this.arrayType = arrayType;
-            this.field = field;
             this.defaultValue = defaultValue;
             this.inputConverter = inputConverter;
+            this.assignment = assignment;
         }
 
         @Override
@@ -268,8 +396,7 @@ public final class ParameterParser {
                 }
             }
             try {
-                field.setAccessible(true);
-                field.set(targetObject, array);
+                assignment.acceptThrowing(array);
             } catch (Exception e) {
                 throw new IllegalArgumentException(
                         String.format(
@@ -284,39 +411,36 @@ public final class ParameterParser {
 
     private static final class DefaultConfigurationParameter extends
             SingleValueConfigurationParameter {
-        private final Object targetObject;
-        private final Field field;
         private final Object defaultValue;
         private final InputConverter inputConverter;
+        private final ThrowingConsumer<Object, Exception> assignment;
 
         private DefaultConfigurationParameter(String name,
                                               String description,
                                               boolean mandatory,
                                               String typeName,
-                                              Object targetObject,
-                                              Field field,
                                               Object defaultValue,
-                                              InputConverter inputConverter) {
+                                              InputConverter inputConverter,
+                                              ThrowingConsumer<Object, Exception> assignment) {
             super(name, description, mandatory, typeName);
-            this.targetObject = targetObject;
-            this.field = field;
             this.defaultValue = defaultValue;
             this.inputConverter = inputConverter;
+            this.assignment = assignment;
         }
 
         @Override
         public void apply(boolean isParameterPresent, String value)
                 throws IllegalArgumentException {
             try {
-                field.set(targetObject,
-                          !isParameterPresent ? defaultValue
-                                              : convert(inputConverter, value, getName()));
+                assignment.acceptThrowing(!isParameterPresent ? defaultValue
+                                                              : convert(inputConverter, value,
+                                                                        getName()));
             } catch (Exception e) {
                 throw new IllegalArgumentException(
                         String.format(
-                                "Could not set property '%s' of configuration for object of type '%s' because: %s",
-                                field.getName(),
-                                targetObject.getClass().getSimpleName(),
+                                "Could not set value of parameter '%s' of type '%s' because: %s",
+                                getName(),
+                                getTypeName(),
                                 e.getMessage()));
             }
         }
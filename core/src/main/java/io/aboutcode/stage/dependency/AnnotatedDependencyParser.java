@@ -2,15 +2,44 @@ package io.aboutcode.stage.dependency;
 
 import io.aboutcode.stage.util.FieldAnalysis;
 import io.aboutcode.stage.util.ThrowingFunction;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.Optional;
 
 public final class AnnotatedDependencyParser {
+    private static final ClassValue<Optional<ResolvedInjector<Object>>> INJECTORS =
+            new ClassValue<Optional<ResolvedInjector<Object>>>() {
+                @Override
+                protected Optional<ResolvedInjector<Object>> computeValue(Class<?> type) {
+                    return generatedInjector(type);
+                }
+            };
+    private static final ClassValue<List<InjectionPoint>> INJECTION_POINTS =
+            new ClassValue<List<InjectionPoint>>() {
+                @Override
+                protected List<InjectionPoint> computeValue(Class<?> type) {
+                    List<InjectionPoint> result = new ArrayList<>();
+                    for (Field field : allFields(type)) {
+                        if (isParameterAnnotated(field)) {
+                            InjectionPoint injectionPoint = asInjectionPoint(field);
+                            if (injectionPoint != null) {
+                                result.add(injectionPoint);
+                            }
+                        }
+                    }
+                    return Collections.unmodifiableList(result);
+                }
+            };
+
     private AnnotatedDependencyParser() {
     }
 
@@ -22,12 +51,12 @@ public final class AnnotatedDependencyParser {
         return field.getAnnotation(Resolved.class);
     }
 
-    private static DependencyAware asDependencyAware(Field field, Object targetObject) {
+    private static InjectionPoint asInjectionPoint(Field field) {
         Resolved annotation = getParameterAnnotation(field);
 
-        FieldAnalysis fieldAnalysis = FieldAnalysis.of(field, targetObject);
+        FieldAnalysis fieldAnalysis = FieldAnalysis.of(field);
 
-        DependencyAware result;
+        ThrowingFunction<DependencyContext, Object, DependencyException> result;
         switch (fieldAnalysis.getFieldType()) {
             case ARRAY:
                 result = array(fieldAnalysis);
@@ -39,42 +68,70 @@ public final class AnnotatedDependencyParser {
                 result = singleValue(annotation, fieldAnalysis);
                 break;
             default:
-                result = null;
+                return null;
         }
-        return result;
+        return new InjectionPoint(fieldAnalysis, setter(field), result);
+    }
+
+    /**
+     * Creates a setter of type <code>(Object, Object)void</code> for the specified field. Final
+     * fields cannot be set through a direct method handle, so they are set via reflection. The
+     * setter of a static field ignores the target passed to it.
+     */
+    private static MethodHandle setter(Field field) {
+        field.setAccessible(true);
+        MethodHandle setter;
+        try {
+            setter = MethodHandles.lookup().unreflectSetter(field);
+            if (Modifier.isStatic(field.getModifiers())) {
+                setter = MethodHandles.dropArguments(setter, 0, Object.class);
+            }
+        } catch (IllegalAccessException e) {
+            try {
+                setter = MethodHandles.lookup()
+                                      .findVirtual(Field.class, "set",
+                                                   MethodType.methodType(void.class,
+                                                                         Object.class,
+                                                                         Object.class))
+                                      .bindTo(field);
+            } catch (NoSuchMethodException | IllegalAccessException reflectionException) {
+                throw new IllegalStateException(reflectionException);
+            }
+        }
+        return setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
     }
 
-    private static DependencyAware array(FieldAnalysis fieldAnalysis) {
+    private static ThrowingFunction<DependencyContext, Object, DependencyException> array(
+            FieldAnalysis fieldAnalysis) {
         //noinspection unchecked
-        return new AnnotatedDependencyAware(fieldAnalysis, context ->
-                context.retrieveDependencies(fieldAnalysis.getSpecificClass()).toArray()
-        );
+        return context ->
+                context.retrieveDependencies(fieldAnalysis.getSpecificClass()).toArray();
     }
 
-    private static DependencyAware collection(FieldAnalysis fieldAnalysis) {
+    private static ThrowingFunction<DependencyContext, Object, DependencyException> collection(
+            FieldAnalysis fieldAnalysis) {
         //noinspection unchecked
-        return new AnnotatedDependencyAware(fieldAnalysis, context ->
-                context.retrieveDependencies(fieldAnalysis.getSpecificClass())
-        );
+        return context -> context.retrieveDependencies(fieldAnalysis.getSpecificClass());
     }
 
-    private static DependencyAware singleValue(Resolved annotation, FieldAnalysis fieldAnalysis) {
-        return new AnnotatedDependencyAware(fieldAnalysis, context -> {
-            Object identifier = identifier(annotation);
+    private static ThrowingFunction<DependencyContext, Object, DependencyException> singleValue(
+            Resolved annotation, FieldAnalysis fieldAnalysis) {
+        Object identifier = identifier(annotation);
+        boolean mandatory = mandatory(annotation);
+        return context -> {
             Object dependency;
             if (identifier == null) {
                 //noinspection unchecked
                 dependency = context.retrieveDependency(fieldAnalysis.getSpecificClass(),
-                                                        mandatory(annotation));
+                                                        mandatory);
             } else {
                 //noinspection unchecked
                 dependency = context.retrieveDependency(identifier,
                                                         fieldAnalysis.getSpecificClass(),
-                                                        mandatory(annotation));
+                                                        mandatory);
             }
             return dependency;
-        }
-        );
+        };
     }
 
     private static boolean mandatory(Resolved annotation) {
@@ -90,42 +147,111 @@ public final class AnnotatedDependencyParser {
 
     public static <TargetT extends DependencyAware> Collection<DependencyAware> parseAnnotations(
             TargetT targetObject) {
-        return allFields(targetObject.getClass())
-                .stream()
-                .filter(AnnotatedDependencyParser::isParameterAnnotated)
-                .map(field -> asDependencyAware(field, targetObject))
-                .collect(Collectors.toList());
-    }
+        Optional<ResolvedInjector<Object>> injector = INJECTORS.get(targetObject.getClass());
+        if (injector.isPresent()) {
+            return Collections.singletonList(
+                    new GeneratedDependencyAware(injector.get(), targetObject));
+        }
 
-    private static List<Field> allFields(Class type) {
-        if (type == Object.class) {
-            return Collections.emptyList();
+        List<InjectionPoint> injectionPoints = INJECTION_POINTS.get(targetObject.getClass());
+        List<DependencyAware> result = new ArrayList<>(injectionPoints.size());
+        for (InjectionPoint injectionPoint : injectionPoints) {
+            result.add(new AnnotatedDependencyAware(injectionPoint, targetObject));
         }
+        return result;
+    }
 
-        return Stream.concat(Stream.of(type.getDeclaredFields()),
-                             allFields(type.getSuperclass()).stream())
-                     .collect(Collectors.toList());
+    @SuppressWarnings("unchecked")
+    private static Optional<ResolvedInjector<Object>> generatedInjector(Class<?> type) {
+        Class<?> injectorClass;
+        try {
+            injectorClass = Class.forName(ResolvedInjector.injectorClassName(type.getName()), true,
+                                          type.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            // no injector has been generated for the class, hence reflection is used
+            return Optional.empty();
+        }
+        if (!ResolvedInjector.class.isAssignableFrom(injectorClass)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of((ResolvedInjector<Object>) injectorClass.getDeclaredConstructor()
+                                                                       .newInstance());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(
+                    String.format("Could not create injector '%s' because: %s",
+                                  injectorClass.getName(), e.getMessage()), e);
+        }
     }
 
+    private static List<Field> allFields(Class<?> type) {
+        List<Field> result = new ArrayList<>();
+        for (Class<?> current = type; current != null && current != Object.class;
+             current = current.getSuperclass()) {
+            result.addAll(Arrays.asList(current.getDeclaredFields()));
+        }
+        return result;
+    }
 
-    private static class AnnotatedDependencyAware implements DependencyAware {
+    /**
+     * An annotated field of a class, analysed once for all instances of the class.
+     */
+    private static class InjectionPoint {
+        private final FieldAnalysis fieldAnalysis;
+        private final MethodHandle setter;
         private final ThrowingFunction<DependencyContext, Object, DependencyException> resolver;
-        private FieldAnalysis fieldAnalysis;
 
-        private AnnotatedDependencyAware(FieldAnalysis fieldAnalysis,
-                                         ThrowingFunction<DependencyContext, Object, DependencyException> resolver) {
+        private InjectionPoint(FieldAnalysis fieldAnalysis, MethodHandle setter,
+                               ThrowingFunction<DependencyContext, Object, DependencyException> resolver) {
             this.fieldAnalysis = fieldAnalysis;
+            this.setter = setter;
             this.resolver = resolver;
         }
 
-        @Override
-        public void resolve(DependencyContext context) throws DependencyException {
+        private void inject(Object targetObject, DependencyContext context)
+                throws DependencyException {
+            Object value = fieldAnalysis.convert(resolver.apply(context));
+            if (value == null && fieldAnalysis.getField().getType().isPrimitive()) {
+                return;
+            }
             try {
-                fieldAnalysis.assign(resolver.apply(context));
-            } catch (IllegalAccessException e) {
+                setter.invokeExact(targetObject, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
                 throw new DependencyException(
                         "Could not assign dependency from annotation because: " + e.getMessage());
             }
         }
     }
+
+    private static class AnnotatedDependencyAware implements DependencyAware {
+        private final InjectionPoint injectionPoint;
+        private final Object targetObject;
+
+        private AnnotatedDependencyAware(InjectionPoint injectionPoint, Object targetObject) {
+            this.injectionPoint = injectionPoint;
+            this.targetObject = targetObject;
+        }
+
+        @Override
+        public void resolve(DependencyContext context) throws DependencyException {
+            injectionPoint.inject(targetObject, context);
+        }
+    }
+
+    private static class GeneratedDependencyAware implements DependencyAware {
+        private final ResolvedInjector<Object> injector;
+        private final Object targetObject;
+
+        private GeneratedDependencyAware(ResolvedInjector<Object> injector, Object targetObject) {
+            this.injector = injector;
+            this.targetObject = targetObject;
+        }
+
+        @Override
+        public void resolve(DependencyContext context) throws DependencyException {
+            injector.inject(targetObject, context);
+        }
+    }
 }
@@ -0,0 +1,40 @@
+package io.aboutcode.stage.dependency;
+
+/**
+ * <p>Assigns the dependencies of all fields annotated with {@link Resolved} of a specific class
+ * without the use of reflection.</p>
+ *
+ * <p>Implementations are generated at compile time by the annotation processor of the stage
+ * processor module. They are named after the class they inject into (see {@link
+ * #injectorClassName(String)}) and are picked up automatically by the {@link
+ * AnnotatedDependencyParser}, which falls back to reflection for classes without an
+ * injector.</p>
+ *
+ * @param <TargetT> The type of object this injector assigns dependencies to
+ */
+public interface ResolvedInjector<TargetT> {
+    /**
+     * Returns the name of the injector class for the class with the specified name. The injector
+     * resides in the same package as the class, with the names of any enclosing classes joined by
+     * underscores, e.g. <code>com.example.Outer_Inner_ResolvedInjector</code> for the class
+     * <code>com.example.Outer$Inner</code>.
+     *
+     * @param className The binary name of the class to inject into
+     *
+     * @return The binary name of the injector class
+     */
+    static String injectorClassName(String className) {
+        return className.replace('$', '_') + "_ResolvedInjector";
+    }
+
+    /**
+     * Retrieves the dependencies of all annotated fields of the specified target from the
+     * specified context and assigns them.
+     *
+     * @param target  The object to assign the dependencies to
+     * @param context The context to retrieve the dependencies from
+     *
+     * @throws DependencyException Thrown if a dependency could not be retrieved
+     */
+    void inject(TargetT target, DependencyContext context) throws DependencyException;
+}
@@ -0,0 +1,155 @@
+package io.aboutcode.stage.dispatch;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * <p>A {@link Dispatcher} for class keys. In addition to dispatching on the exact class, this can
+ * resolve the result registered for the nearest supertype of a class. Resolution walks the type
+ * hierarchy only once per class: the outcome is cached in a {@link ClassValue}, so subsequent
+ * resolutions are as cheap as a field access.</p>
+ *
+ * <p>The nearest supertype is the class itself, followed by its superclasses from the most to the
+ * least specific one, followed by all interfaces the class implements, breadth-first starting with
+ * the interfaces declared by the class itself.</p>
+ */
+public final class ClassDispatcher<TargetT> {
+    private static final Object UNRESOLVED = new Object();
+    private final Map<Class<?>, TargetT> registeredDispatches;
+    private final ClassValue<Object> resolvedDispatches = new ClassValue<Object>() {
+        @Override
+        protected Object computeValue(Class<?> type) {
+            TargetT result = findNearest(type);
+            return result == null ? UNRESOLVED : result;
+        }
+    };
+
+    private ClassDispatcher(Map<Class<?>, TargetT> registeredDispatches) {
+        this.registeredDispatches = registeredDispatches;
+    }
+
+    /**
+     * Creates a new empty dipatcher.
+     *
+     * @param <TargetT> The type of the result
+     *
+     * @return A new dispatcher without any registered results
+     */
+    public static <TargetT> ClassDispatcher<TargetT> empty() {
+        return new ClassDispatcher<>(Collections.emptyMap());
+    }
+
+    /**
+     * Creates a new dipatcher with the specified key to result mapping.
+     *
+     * @param key       The key to add
+     * @param result    The result to add
+     * @param <TargetT> The type of the result
+     *
+     * @return A new dispatcher with only the specified key to result mapping.
+     */
+    public static <TargetT> ClassDispatcher<TargetT> of(Class<?> key, TargetT result) {
+        return new ClassDispatcher<>(Collections.singletonMap(key, result));
+    }
+
+    /**
+     * Creates a new Dispatcher from the current dispatcher and adds the specified key to result
+     * mapping to the existing mappings of this dispatcher.
+     *
+     * @param key    The key to add
+     * @param result The result to add
+     *
+     * @return A new dispatcher based on this dispatcher with the specified key to result mapping
+     * added.
+     */
+    public ClassDispatcher<TargetT> with(Class<?> key, TargetT result) {
+        Map<Class<?>, TargetT> map = new HashMap<>(registeredDispatches);
+        map.put(key, result);
+        return new ClassDispatcher<>(map);
+    }
+
+    /**
+     * Returns an optional of the result registered for exactly the specified class.
+     *
+     * @param key The key to return the result for
+     *
+     * @return An optional over the result
+     */
+    public Optional<TargetT> dispatch(Class<?> key) {
+        return Optional.ofNullable(dispatchOrNull(key));
+    }
+
+    /**
+     * Returns the result registered for exactly the specified class without wrapping it in an
+     * optional, which avoids an allocation per lookup on hot paths.
+     *
+     * @param key The key to return the result for
+     *
+     * @return The result or <code>null</code> if no result has been registered for the key
+     */
+    public TargetT dispatchOrNull(Class<?> key) {
+        return registeredDispatches.get(key);
+    }
+
+    /**
+     * Returns an optional of the result registered for the nearest supertype of the specified
+     * class.
+     *
+     * @param key The key to return the result for
+     *
+     * @return An optional over the result
+     */
+    public Optional<TargetT> resolve(Class<?> key) {
+        return Optional.ofNullable(resolveOrNull(key));
+    }
+
+    /**
+     * Returns the result registered for the nearest supertype of the specified class without
+     * wrapping it in an optional.
+     *
+     * @param key The key to return the result for
+     *
+     * @return The result or <code>null</code> if no result has been registered for any supertype
+     * of the key
+     */
+    @SuppressWarnings("unchecked")
+    public TargetT resolveOrNull(Class<?> key) {
+        if (key == null) {
+            return null;
+        }
+        Object result = resolvedDispatches.get(key);
+        return result == UNRESOLVED ? null : (TargetT) result;
+    }
+
+    private TargetT findNearest(Class<?> type) {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            TargetT result = registeredDispatches.get(current);
+            if (result != null) {
+                return result;
+            }
+        }
+
+        Queue<Class<?>> interfaces = new ArrayDeque<>();
+        Set<Class<?>> visited = new HashSet<>();
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            Collections.addAll(interfaces, current.getInterfaces());
+        }
+        while (!interfaces.isEmpty()) {
+            Class<?> current = interfaces.poll();
+            if (visited.add(current)) {
+                TargetT result = registeredDispatches.get(current);
+                if (result != null) {
+                    return result;
+                }
+                Collections.addAll(interfaces, current.getInterfaces());
+            }
+        }
+        return null;
+    }
+}
@@ -5,13 +5,18 @@ import java.util.Map;
 import java.util.Optional;
 
 /**
- * This provides facilities to dispatch method invocations based on an identifying property. This
- * allows for indirections without the need of visitors or switch-case statements.
+ * <p>This provides facilities to dispatch method invocations based on an identifying property.
+ * This allows for indirections without the need of visitors or switch-case statements.</p>
+ * <p>Each call to {@link #with(Object, Object)} copies all mappings, which is fine for a handful
+ * of mappings. Use a {@link DispatcherBuilder} to create dispatchers with many mappings.</p>
+ *
+ * @see EnumDispatcher
+ * @see ClassDispatcher
  */
 public final class Dispatcher<KeyT, TargetT> {
     private final Map<KeyT, TargetT> registeredDispatches;
 
-    private Dispatcher(Map<KeyT, TargetT> registeredDispatches) {
+    Dispatcher(Map<KeyT, TargetT> registeredDispatches) {
         this.registeredDispatches = registeredDispatches;
     }
 
@@ -67,6 +72,18 @@ public final class Dispatcher<KeyT, TargetT> {
      * @return An optional over the result
      */
     public Optional<TargetT> dispatch(KeyT key) {
-        return Optional.ofNullable(registeredDispatches.get(key));
+        return Optional.ofNullable(dispatchOrNull(key));
+    }
+
+    /**
+     * Returns the result without wrapping it in an optional, which avoids an allocation per lookup
+     * on hot paths.
+     *
+     * @param key The key to return the result for
+     *
+     * @return The result or <code>null</code> if no result has been registered for the key
+     */
+    public TargetT dispatchOrNull(KeyT key) {
+        return registeredDispatches.get(key);
     }
 }
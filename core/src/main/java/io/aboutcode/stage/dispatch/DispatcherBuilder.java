@@ -0,0 +1,55 @@
+package io.aboutcode.stage.dispatch;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A mutable builder for {@link Dispatcher}s. In contrast to {@link Dispatcher#with(Object,
+ * Object)}, adding a mapping does not copy the existing mappings, so building a dispatcher with
+ * many mappings takes linear time. This is not thread safe.
+ *
+ * @param <KeyT>    The type of the key
+ * @param <TargetT> The type of the result
+ */
+public final class DispatcherBuilder<KeyT, TargetT> {
+    private final Map<KeyT, TargetT> registeredDispatches = new HashMap<>();
+
+    private DispatcherBuilder() {
+    }
+
+    /**
+     * Creates a new builder without any mappings.
+     *
+     * @param <KeyT>    The type of the key
+     * @param <TargetT> The type of the result
+     *
+     * @return A new builder
+     */
+    public static <KeyT, TargetT> DispatcherBuilder<KeyT, TargetT> create() {
+        return new DispatcherBuilder<>();
+    }
+
+    /**
+     * Adds the specified key to result mapping, replacing any mapping previously added for the
+     * key.
+     *
+     * @param key    The key to add
+     * @param result The result to add
+     *
+     * @return This for fluent interface
+     */
+    public DispatcherBuilder<KeyT, TargetT> with(KeyT key, TargetT result) {
+        registeredDispatches.put(key, result);
+        return this;
+    }
+
+    /**
+     * Builds an immutable dispatcher with the mappings added so far. Adding further mappings to
+     * this builder does not affect the built dispatcher.
+     *
+     * @return The created dispatcher
+     */
+    public Dispatcher<KeyT, TargetT> build() {
+        return new Dispatcher<>(new HashMap<>(registeredDispatches));
+    }
+}
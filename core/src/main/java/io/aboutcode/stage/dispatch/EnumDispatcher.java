@@ -0,0 +1,87 @@
+package io.aboutcode.stage.dispatch;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A {@link Dispatcher} for enum keys. The results are kept in an array indexed by the ordinal of
+ * the keys, so dispatching neither hashes the key nor allocates.
+ */
+public final class EnumDispatcher<KeyT extends Enum<KeyT>, TargetT> {
+    private final Class<KeyT> keyType;
+    private final Object[] registeredDispatches;
+
+    private EnumDispatcher(Class<KeyT> keyType, Object[] registeredDispatches) {
+        this.keyType = keyType;
+        this.registeredDispatches = registeredDispatches;
+    }
+
+    /**
+     * Creates a new empty dipatcher for the specified type of enum.
+     *
+     * @param keyType   The type of the key
+     * @param <KeyT>    The type of the key
+     * @param <TargetT> The type of the result
+     *
+     * @return A new dispatcher without any registered results
+     */
+    public static <KeyT extends Enum<KeyT>, TargetT> EnumDispatcher<KeyT, TargetT> empty(
+            Class<KeyT> keyType) {
+        return new EnumDispatcher<>(keyType, new Object[keyType.getEnumConstants().length]);
+    }
+
+    /**
+     * Creates a new dipatcher with the specified key to result mapping.
+     *
+     * @param key       The key to add
+     * @param result    The result to add
+     * @param <KeyT>    The type of the key
+     * @param <TargetT> The type of the result
+     *
+     * @return A new dispatcher with only the specified key to result mapping.
+     */
+    public static <KeyT extends Enum<KeyT>, TargetT> EnumDispatcher<KeyT, TargetT> of(
+            KeyT key, TargetT result) {
+        return EnumDispatcher.<KeyT, TargetT>empty(key.getDeclaringClass()).with(key, result);
+    }
+
+    /**
+     * Creates a new Dispatcher from the current dispatcher and adds the specified key to result
+     * mapping to the existing mappings of this dispatcher.
+     *
+     * @param key    The key to add
+     * @param result The result to add
+     *
+     * @return A new dispatcher based on this dispatcher with the specified key to result mapping
+     * added.
+     */
+    public EnumDispatcher<KeyT, TargetT> with(KeyT key, TargetT result) {
+        Object[] dispatches = registeredDispatches.clone();
+        dispatches[keyType.cast(Objects.requireNonNull(key)).ordinal()] = result;
+        return new EnumDispatcher<>(keyType, dispatches);
+    }
+
+    /**
+     * Returns an optional of the result.
+     *
+     * @param key The key to return the result for
+     *
+     * @return An optional over the result
+     */
+    public Optional<TargetT> dispatch(KeyT key) {
+        return Optional.ofNullable(dispatchOrNull(key));
+    }
+
+    /**
+     * Returns the result without wrapping it in an optional, which avoids an allocation per lookup
+     * on hot paths.
+     *
+     * @param key The key to return the result for
+     *
+     * @return The result or <code>null</code> if no result has been registered for the key
+     */
+    @SuppressWarnings("unchecked")
+    public TargetT dispatchOrNull(KeyT key) {
+        return key == null ? null : (TargetT) registeredDispatches[key.ordinal()];
+    }
+}
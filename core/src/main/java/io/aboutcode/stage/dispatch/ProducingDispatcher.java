@@ -5,12 +5,13 @@ import java.util.Optional;
 import java.util.function.Supplier;
 
 /**
- * This {@link Dispatcher} returns the value of the registered {@link Supplier} when invoked.
+ * This {@link Dispatcher} returns the value of the registered {@link Supplier} when invoked. Use a
+ * {@link ProducingDispatcherBuilder} to create dispatchers with many mappings.
  */
 public final class ProducingDispatcher<KeyT, TargetT> {
     private final Dispatcher<KeyT, Supplier<TargetT>> dispatcher;
 
-    private ProducingDispatcher(Dispatcher<KeyT, Supplier<TargetT>> dispatcher) {
+    ProducingDispatcher(Dispatcher<KeyT, Supplier<TargetT>> dispatcher) {
         this.dispatcher = dispatcher;
     }
 
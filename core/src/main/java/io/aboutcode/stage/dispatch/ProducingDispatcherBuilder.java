@@ -0,0 +1,55 @@
+package io.aboutcode.stage.dispatch;
+
+import java.util.function.Supplier;
+
+/**
+ * A mutable builder for {@link ProducingDispatcher}s that builds dispatchers with many mappings in
+ * linear time. This is not thread safe.
+ *
+ * @param <KeyT>    The type of the key
+ * @param <TargetT> The type of the result of the producer
+ */
+public final class ProducingDispatcherBuilder<KeyT, TargetT> {
+    private final DispatcherBuilder<KeyT, Supplier<TargetT>> dispatcher = DispatcherBuilder
+            .create();
+
+    private ProducingDispatcherBuilder() {
+    }
+
+    /**
+     * Creates a new builder without any mappings.
+     *
+     * @param <KeyT>    The type of the key
+     * @param <TargetT> The type of the result of the producer
+     *
+     * @return A new builder
+     */
+    public static <KeyT, TargetT> ProducingDispatcherBuilder<KeyT, TargetT> create() {
+        return new ProducingDispatcherBuilder<>();
+    }
+
+    /**
+     * Adds the specified key to producer mapping, replacing any mapping previously added for the
+     * key.
+     *
+     * @param key            The key to add
+     * @param resultProducer The producer to add
+     *
+     * @return This for fluent interface
+     */
+    public ProducingDispatcherBuilder<KeyT, TargetT> with(KeyT key,
+                                                          Supplier<TargetT> resultProducer) {
+        dispatcher.with(key, resultProducer);
+        return this;
+    }
+
+    /**
+     * Builds an immutable dispatcher with the mappings added so far. Adding further mappings to
+     * this builder does not affect the built dispatcher.
+     *
+     * @return The created dispatcher
+     */
+    public ProducingDispatcher<KeyT, TargetT> build() {
+        return new ProducingDispatcher<>(dispatcher.build());
+    }
+}
@@ -2,15 +2,17 @@ package io.aboutcode.stage.dispatch;
 
 import io.aboutcode.stage.util.Action;
 import java.util.NoSuchElementException;
+import java.util.function.Supplier;
 
 /**
  * Based on a regular {@link Dispatcher}, this does not produce any results when dispatching calls
- * but instead invokes the mapped action for a key.
+ * but instead invokes the mapped action for a key. Use a {@link ResultlessDispatcherBuilder} to
+ * create dispatchers with many mappings.
  */
 public final class ResultlessDispatcher<KeyT> {
     private final ProducingDispatcher<KeyT, Void> dispatcher;
 
-    private ResultlessDispatcher(ProducingDispatcher<KeyT, Void> dispatcher) {
+    ResultlessDispatcher(ProducingDispatcher<KeyT, Void> dispatcher) {
         this.dispatcher = dispatcher;
     }
 
@@ -35,10 +37,7 @@ public final class ResultlessDispatcher<KeyT> {
      * @return A new dispatcher with only the specified key to producer mapping.
      */
     public static <KeyT> ResultlessDispatcher<KeyT> of(KeyT key, Action action) {
-        return new ResultlessDispatcher<>(ProducingDispatcher.of(key, () -> {
-            action.accept();
-            return null;
-        }));
+        return new ResultlessDispatcher<>(ProducingDispatcher.of(key, producer(action)));
     }
 
     /**
@@ -52,10 +51,14 @@ public final class ResultlessDispatcher<KeyT> {
      * mapping added.
      */
     public ResultlessDispatcher<KeyT> with(KeyT key, Action action) {
-        return new ResultlessDispatcher<>(dispatcher.with(key, () -> {
+        return new ResultlessDispatcher<>(dispatcher.with(key, producer(action)));
+    }
+
+    static Supplier<Void> producer(Action action) {
+        return () -> {
             action.accept();
             return null;
-        }));
+        };
     }
 
     /**
@@ -0,0 +1,52 @@
+package io.aboutcode.stage.dispatch;
+
+import io.aboutcode.stage.util.Action;
+
+/**
+ * A mutable builder for {@link ResultlessDispatcher}s that builds dispatchers with many mappings
+ * in linear time. This is not thread safe.
+ *
+ * @param <KeyT> The type of the key
+ */
+public final class ResultlessDispatcherBuilder<KeyT> {
+    private final ProducingDispatcherBuilder<KeyT, Void> dispatcher = ProducingDispatcherBuilder
+            .create();
+
+    private ResultlessDispatcherBuilder() {
+    }
+
+    /**
+     * Creates a new builder without any mappings.
+     *
+     * @param <KeyT> The type of the key
+     *
+     * @return A new builder
+     */
+    public static <KeyT> ResultlessDispatcherBuilder<KeyT> create() {
+        return new ResultlessDispatcherBuilder<>();
+    }
+
+    /**
+     * Adds the specified key to {@link Action} mapping, replacing any mapping previously added for
+     * the key.
+     *
+     * @param key    The key to add
+     * @param action The action to add
+     *
+     * @return This for fluent interface
+     */
+    public ResultlessDispatcherBuilder<KeyT> with(KeyT key, Action action) {
+        dispatcher.with(key, ResultlessDispatcher.producer(action));
+        return this;
+    }
+
+    /**
+     * Builds an immutable dispatcher with the mappings added so far. Adding further mappings to
+     * this builder does not affect the built dispatcher.
+     *
+     * @return The created dispatcher
+     */
+    public ResultlessDispatcher<KeyT> build() {
+        return new ResultlessDispatcher<>(dispatcher.build());
+    }
+}
@@ -50,6 +50,22 @@ public class ConfigurationFileFeature implements Feature {
     @Override
     public Map<String, Supplier<List<String>>> processApplicationArguments(
             Map<String, Supplier<List<String>>> applicationArguments) {
+        return merge(applicationArguments, readConfigurationFile());
+    }
+
+    /**
+     * Returns the configuration file specified via the application arguments.
+     */
+    File getConfigurationFile() {
+        return configurationFile;
+    }
+
+    /**
+     * Reads and parses the contents of the configuration file.
+     *
+     * @throws IllegalStateException Thrown if the file cannot be read or parsed
+     */
+    Map<String, Supplier<List<String>>> readConfigurationFile() {
         List<String> fileContents;
         try {
             fileContents = Files.lines(configurationFile.toPath())
@@ -63,17 +79,23 @@ public class ConfigurationFileFeature implements Feature {
                     e.getMessage()), e);
         }
 
-        Map<String, Supplier<List<String>>> fileConfigurationProperties;
         try {
-            fileConfigurationProperties = ApplicationArgumentParser
-                    .parseArguments(fileContents.toArray(new String[0]));
+            return ApplicationArgumentParser.parseArguments(fileContents.toArray(new String[0]));
         } catch (ArgumentParseException e) {
             throw new IllegalStateException(String.format(
                     "Could not parse file contents in file '%s' because: %s",
                     configurationFile.getAbsolutePath(),
                     e.getMessage()), e);
         }
+    }
 
+    /**
+     * Combines the specified application arguments with the arguments read from the
+     * configuration file, respecting the precedence defined at construction.
+     */
+    Map<String, Supplier<List<String>>> merge(
+            Map<String, Supplier<List<String>>> applicationArguments,
+            Map<String, Supplier<List<String>>> fileConfigurationProperties) {
         // add the loaded parameters to the existing parameters
         Map<String, Supplier<List<String>>> result;
         Map<String, Supplier<List<String>>> supplement;
@@ -81,7 +103,7 @@ public class ConfigurationFileFeature implements Feature {
             result = new HashMap<>(applicationArguments);
             supplement = fileConfigurationProperties;
         } else {
-            result = fileConfigurationProperties;
+            result = new HashMap<>(fileConfigurationProperties);
             supplement = applicationArguments;
         }
         for (Map.Entry<String, Supplier<List<String>>> entry : supplement.entrySet()) {
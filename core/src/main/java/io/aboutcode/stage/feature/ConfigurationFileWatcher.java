@@ -0,0 +1,196 @@
+package io.aboutcode.stage.feature;
+
+import io.aboutcode.stage.component.BaseComponent;
+import io.aboutcode.stage.configuration.ConfigurationParameter;
+import io.aboutcode.stage.configuration.ConfigurationReloadListener;
+import io.aboutcode.stage.dependency.DependencyContext;
+import io.aboutcode.stage.dependency.DependencyException;
+import io.aboutcode.stage.lifecycle.LifeCycleException;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The component of the {@link ReloadableConfigurationFileFeature} that watches the configuration
+ * file and applies changes. Since it depends on all {@link ConfigurationReloadListener}s, it is
+ * started after and stopped before all of them, so listeners are only notified while running.
+ */
+final class ConfigurationFileWatcher extends BaseComponent {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConfigurationFileWatcher.class);
+    private static final long SETTLE_MILLIS = 100;
+    private final ReloadableConfigurationFileFeature feature;
+    private final Map<String, ConfigurationParameter> parameters = new HashMap<>();
+    private final Map<String, List<String>> appliedValues;
+    private Set<ConfigurationReloadListener> listeners = Collections.emptySet();
+    private WatchService watchService;
+    private Thread watcher;
+
+    ConfigurationFileWatcher(ReloadableConfigurationFileFeature feature,
+                             List<ConfigurationParameter> configurationParameters,
+                             Map<String, Supplier<List<String>>> appliedArguments) {
+        this.feature = feature;
+        configurationParameters.forEach(parameter -> parameters.put(parameter.getName(),
+                                                                    parameter));
+        this.appliedValues = values(appliedArguments);
+    }
+
+    @Override
+    public void resolve(DependencyContext context) throws DependencyException {
+        listeners = context.retrieveDependencies(ConfigurationReloadListener.class);
+    }
+
+    @Override
+    public void start() throws LifeCycleException {
+        Path file = feature.getConfigurationFile().toPath().toAbsolutePath();
+        try {
+            watchService = file.getFileSystem().newWatchService();
+            // files cannot be watched directly, only the directories containing them
+            file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                                      StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            throw new LifeCycleException(String.format(
+                    "Could not watch configuration file '%s' because: %s", file, e.getMessage()),
+                                         e);
+        }
+        watcher = new Thread(() -> watch(file.getFileName()), "configuration-file-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    @Override
+    public void stop() {
+        if (watcher == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            LOGGER.warn("Could not close watch service: {}", e.getMessage(), e);
+        }
+        watcher.interrupt();
+        try {
+            watcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reads the configuration file, applies all parameters whose values changed since they have
+     * been applied last and notifies the interested listeners. Parameters no listener is
+     * interested in are not applied, since no component would pick up the new value safely.
+     *
+     * @return The names of the parameters that have been applied
+     */
+    synchronized Set<String> reload() {
+        Map<String, List<String>> values;
+        try {
+            values = values(feature.readArguments());
+        } catch (IllegalStateException e) {
+            LOGGER.error("Could not reload configuration, keeping previous values: {}",
+                         e.getMessage());
+            return Collections.emptySet();
+        }
+
+        Set<String> names = new TreeSet<>(appliedValues.keySet());
+        names.addAll(values.keySet());
+        Set<String> changed = new LinkedHashSet<>();
+        for (String name : names) {
+            List<String> value = values.get(name);
+            if (Objects.equals(value, appliedValues.get(name))) {
+                continue;
+            }
+
+            ConfigurationParameter parameter = parameters.get(name);
+            if (parameter == null) {
+                LOGGER.warn("Ignoring unknown configuration parameter: {}", name);
+            } else if (value == null && parameter.isMandatory()) {
+                LOGGER.warn("Ignoring removal of mandatory configuration parameter: {}", name);
+            } else if (listeners.stream().noneMatch(listener -> listener.isInterestedIn(name))) {
+                LOGGER.warn("Configuration parameter {} changed, but no component reloads it; "
+                            + "restart the application to apply it", name);
+            } else {
+                try {
+                    parameter.apply(value != null,
+                                    value == null ? Collections.emptyList() : value);
+                    changed.add(name);
+                    LOGGER.info("Reloaded configuration parameter: {}", name);
+                } catch (RuntimeException e) {
+                    LOGGER.error("Could not reload configuration parameter {} because: {}",
+                                 name, e.getMessage());
+                }
+            }
+            // ignored values are reported once rather than on every subsequent reload
+            if (value == null) {
+                appliedValues.remove(name);
+            } else {
+                appliedValues.put(name, value);
+            }
+        }
+
+        if (!changed.isEmpty()) {
+            notifyListeners(Collections.unmodifiableSet(changed));
+        }
+        return changed;
+    }
+
+    private void notifyListeners(Set<String> changed) {
+        for (ConfigurationReloadListener listener : listeners) {
+            try {
+                if (changed.stream().anyMatch(listener::isInterestedIn)) {
+                    listener.configurationReloaded(changed);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.error("Exception notifying listener of reloaded configuration: {}",
+                             e.getMessage(), e);
+            }
+        }
+    }
+
+    private void watch(Path fileName) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                // files are often written in several steps, so events are collected for a while
+                Thread.sleep(SETTLE_MILLIS);
+                boolean modified = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    // events might have been lost, so the file might have changed as well
+                    modified |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                                || fileName.equals(event.context());
+                }
+                if (modified) {
+                    reload();
+                }
+                if (!key.reset()) {
+                    LOGGER.warn("Directory of configuration file is no longer accessible, "
+                                + "configuration will not be reloaded anymore");
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // the watcher has been stopped
+        }
+    }
+
+    private static Map<String, List<String>> values(Map<String, Supplier<List<String>>> arguments) {
+        Map<String, List<String>> result = new HashMap<>();
+        arguments.forEach((name, value) -> result.put(name, value.get()));
+        return result;
+    }
+}
@@ -1,6 +1,8 @@
 package io.aboutcode.stage.feature;
 
+import io.aboutcode.stage.application.ApplicationAssemblyContext;
 import io.aboutcode.stage.configuration.ConfigurationContext;
+import io.aboutcode.stage.configuration.ConfigurationParameter;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
@@ -39,4 +41,16 @@ public interface Feature {
      */
     Map<String, Supplier<List<String>>> processApplicationArguments(
             Map<String, Supplier<List<String>>> applicationArguments);
+
+    /**
+     * <p>Allows the feature to add components to the application after the configuration
+     * parameters have been applied and the components of the application have been added.</p>
+     *
+     * @param context                 The context to add components through
+     * @param configurationParameters All configuration parameters of the application, including
+     *                                the ones of the features. This list will not be modifiable
+     */
+    default void assemble(ApplicationAssemblyContext context,
+                          List<ConfigurationParameter> configurationParameters) {
+    }
 }
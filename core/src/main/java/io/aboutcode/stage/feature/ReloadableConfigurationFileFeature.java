@@ -0,0 +1,68 @@
+package io.aboutcode.stage.feature;
+
+import io.aboutcode.stage.application.ApplicationAssemblyContext;
+import io.aboutcode.stage.configuration.ConfigurationParameter;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * <p>A {@link ConfigurationFileFeature} that keeps watching the configuration file while the
+ * application is running and applies changes without restarting the application.</p>
+ *
+ * <p>Whenever the file is modified, it is parsed again and only the configuration parameters
+ * whose values changed and that at least one component implementing {@link
+ * io.aboutcode.stage.configuration.ConfigurationReloadListener} is interested in are applied
+ * again; removing a parameter from the file applies it as if it
+ * was not specified at all. The precedence of the file over command line parameters is respected,
+ * so with command line parameters taking precedence, changes of parameters specified on the
+ * command line are ignored. Mandatory parameters cannot be removed and unknown parameters are
+ * ignored. If the file cannot be parsed, the previous values are kept. Changes of parameters no
+ * listener is interested in are not applied but logged, since they require a restart.</p>
+ *
+ * <p>After applying changes, the listeners that are interested in any of the changed parameters
+ * are notified. Configuration objects of components that do not implement the listener or are
+ * not interested in the changed parameters are therefore not modified, unless they share a
+ * parameter with an interested listener.</p>
+ */
+public class ReloadableConfigurationFileFeature extends ConfigurationFileFeature {
+    private Map<String, Supplier<List<String>>> applicationArguments = Collections.emptyMap();
+    private Map<String, Supplier<List<String>>> appliedArguments = Collections.emptyMap();
+
+    /**
+     * Creates a new feature instance
+     *
+     * @param fileTakesPrecedence If true, the file takes precendence over command line parameters,
+     *                            otherwise command line parameters take precedence
+     */
+    public ReloadableConfigurationFileFeature(boolean fileTakesPrecedence) {
+        super(fileTakesPrecedence);
+    }
+
+    @Override
+    public Map<String, Supplier<List<String>>> processApplicationArguments(
+            Map<String, Supplier<List<String>>> applicationArguments) {
+        this.applicationArguments = new HashMap<>(applicationArguments);
+        this.appliedArguments = super.processApplicationArguments(applicationArguments);
+        return appliedArguments;
+    }
+
+    @Override
+    public void assemble(ApplicationAssemblyContext context,
+                         List<ConfigurationParameter> configurationParameters) {
+        context.addComponent(new ConfigurationFileWatcher(this, configurationParameters,
+                                                          appliedArguments));
+    }
+
+    /**
+     * Reads the configuration file and combines it with the application arguments this feature
+     * received initially.
+     *
+     * @throws IllegalStateException Thrown if the file cannot be read or parsed
+     */
+    Map<String, Supplier<List<String>>> readArguments() {
+        return merge(applicationArguments, readConfigurationFile());
+    }
+}
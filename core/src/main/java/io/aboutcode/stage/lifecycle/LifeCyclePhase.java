@@ -0,0 +1,14 @@
+package io.aboutcode.stage.lifecycle;
+
+/**
+ * The phases a {@link LifeCycleAware} passes through in the course of its lifecycle. A unit that
+ * is {@link io.aboutcode.stage.dependency.DependencyAware} resolves its dependencies between its
+ * initialization and its start.
+ */
+public enum LifeCyclePhase {
+    Init,
+    Resolve,
+    Start,
+    Stop,
+    Destroy
+}
@@ -0,0 +1,239 @@
+package io.aboutcode.stage.metrics;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>A {@link TopicMetrics} implementation that keeps counters, latency histograms and queue depth
+ * gauges per topic in memory. Recording is lock-free, so this is suitable for production use, e.g.
+ * to find the hot topics of an application.</p>
+ *
+ * <p>To keep the memory footprint bounded if topics are short-lived, e.g. bound to clients, the
+ * number of topics tracked individually is limited. Metrics of topics beyond that limit are
+ * aggregated under {@link #OTHER_TOPICS}.</p>
+ */
+public final class InMemoryTopicMetrics implements TopicMetrics {
+    /**
+     * The topic that metrics of topics beyond the limit of individually tracked topics are
+     * aggregated under
+     */
+    public static final Object OTHER_TOPICS = new Object() {
+        @Override
+        public String toString() {
+            return "<other topics>";
+        }
+    };
+    // ConcurrentHashMap does not support null keys, so the null topic is mapped to a marker
+    private static final Object NULL_TOPIC = new Object();
+    private static final int DEFAULT_MAX_TOPICS = 1024;
+    private final ConcurrentMap<Object, TopicStatistics> topics = new ConcurrentHashMap<>();
+    private final int maxTopics;
+
+    /**
+     * Creates new metrics that track up to 1024 topics individually.
+     */
+    public InMemoryTopicMetrics() {
+        this(DEFAULT_MAX_TOPICS);
+    }
+
+    /**
+     * Creates new metrics that track up to the specified number of topics individually.
+     *
+     * @param maxTopics The maximum number of topics to track individually
+     */
+    public InMemoryTopicMetrics(int maxTopics) {
+        if (maxTopics < 1) {
+            throw new IllegalArgumentException(
+                    String.format("Maximum number of topics must be positive but was %d",
+                                  maxTopics));
+        }
+        this.maxTopics = maxTopics;
+    }
+
+    @Override
+    public void published(Object topic, int events, int deliveries) {
+        TopicStatistics statistics = statistics(topic);
+        statistics.published.add(events);
+        statistics.deliveries.add(deliveries);
+    }
+
+    @Override
+    public void executed(Object topic, long durationNanos, boolean failed) {
+        TopicStatistics statistics = statistics(topic);
+        statistics.latencies.incrementAndGet(bucket(durationNanos));
+        if (failed) {
+            statistics.failures.increment();
+        }
+    }
+
+    @Override
+    public void queueDepthChanged(Object topic, int depth) {
+        TopicStatistics statistics = statistics(topic);
+        statistics.queueDepth.set(depth);
+        statistics.maxQueueDepth.accumulateAndGet(depth, Math::max);
+    }
+
+    /**
+     * Returns all topics that metrics have been recorded for, including {@link #OTHER_TOPICS} if
+     * the limit of individually tracked topics has been reached.
+     *
+     * @return All topics that metrics have been recorded for
+     */
+    public Set<Object> getTopics() {
+        Set<Object> result = new HashSet<>();
+        for (Object topic : topics.keySet()) {
+            result.add(topic == NULL_TOPIC ? null : topic);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the statistics of the specified topic. The returned statistics reflect metrics
+     * recorded after this call as well.
+     *
+     * @param topic The topic to return the statistics for
+     *
+     * @return The statistics of the topic or <code>null</code> if no metrics have been recorded for
+     * the topic
+     */
+    public TopicStatistics getStatistics(Object topic) {
+        return topics.get(topic == null ? NULL_TOPIC : topic);
+    }
+
+    /**
+     * Removes all recorded metrics.
+     */
+    public void clear() {
+        topics.clear();
+    }
+
+    private TopicStatistics statistics(Object topic) {
+        Object key = topic == null ? NULL_TOPIC : topic;
+        TopicStatistics statistics = topics.get(key);
+        if (statistics == null) {
+            // the limit is not enforced exactly under contention, which is fine for its purpose
+            if (topics.size() >= maxTopics) {
+                key = OTHER_TOPICS;
+            }
+            statistics = topics.computeIfAbsent(key, ignored -> new TopicStatistics());
+        }
+        return statistics;
+    }
+
+    private static int bucket(long durationNanos) {
+        return 64 - Long.numberOfLeadingZeros(Math.max(0, durationNanos));
+    }
+
+    /**
+     * The metrics recorded for a single topic. Latencies are recorded in a histogram with buckets
+     * of powers of two, so reported latencies are upper bounds that are at most twice the actual
+     * latency.
+     */
+    public static final class TopicStatistics {
+        private final LongAdder published = new LongAdder();
+        private final LongAdder deliveries = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        // bucket i counts latencies with i significant bits, i.e. below 2^i nanoseconds
+        private final AtomicLongArray latencies = new AtomicLongArray(65);
+        private final AtomicInteger queueDepth = new AtomicInteger();
+        private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+        private TopicStatistics() {
+        }
+
+        /**
+         * Returns the number of events published to the topic.
+         *
+         * @return The number of events published to the topic
+         */
+        public long getPublished() {
+            return published.sum();
+        }
+
+        /**
+         * Returns the number of deliveries of events published to the topic.
+         *
+         * @return The number of deliveries of events published to the topic
+         */
+        public long getDeliveries() {
+            return deliveries.sum();
+        }
+
+        /**
+         * Returns the number of executions for the topic.
+         *
+         * @return The number of executions for the topic
+         */
+        public long getExecutions() {
+            long executions = 0;
+            for (int i = 0; i < latencies.length(); i++) {
+                executions += latencies.get(i);
+            }
+            return executions;
+        }
+
+        /**
+         * Returns the number of executions for the topic that threw an exception.
+         *
+         * @return The number of failed executions for the topic
+         */
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        /**
+         * Returns the latency that the specified fraction of executions for the topic did not
+         * exceed, e.g. 0.99 for the 99th percentile.
+         *
+         * @param percentile The fraction of executions between 0 and 1
+         *
+         * @return The upper bound of the latency in nanoseconds or 0 if there were no executions
+         */
+        public long getLatencyNanos(double percentile) {
+            if (percentile < 0 || percentile > 1) {
+                throw new IllegalArgumentException(
+                        String.format("Percentile must be between 0 and 1 but was %s",
+                                      percentile));
+            }
+            long[] counts = new long[latencies.length()];
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = latencies.get(i);
+                total += counts[i];
+            }
+            long threshold = Math.max(1, (long) Math.ceil(total * percentile));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (total > 0 && seen >= threshold) {
+                    return i == 64 ? Long.MAX_VALUE : (1L << i) - 1;
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * Returns the number of tasks currently waiting for execution in the topic.
+         *
+         * @return The number of tasks currently waiting in the topic
+         */
+        public int getQueueDepth() {
+            return queueDepth.get();
+        }
+
+        /**
+         * Returns the largest number of tasks that have been waiting for execution in the topic at
+         * the same time.
+         *
+         * @return The largest number of tasks waiting in the topic at the same time
+         */
+        public int getMaxQueueDepth() {
+            return maxQueueDepth.get();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package io.aboutcode.stage.metrics;
+
+/**
+ * <p>Implementations of this receive metrics about the processing of topics, e.g. from a {@link
+ * io.aboutcode.stage.subscription.SubscriptionManager} or a {@link
+ * io.aboutcode.stage.concurrent.PooledTopicExecutor}. This allows exporting the metrics to any
+ * monitoring system; {@link InMemoryTopicMetrics} is a default implementation that keeps them in
+ * memory.</p>
+ *
+ * <p>All methods are called on the hot path of the reporting component and possibly from many
+ * threads concurrently, so implementations must be thread safe and should neither block nor perform
+ * expensive computations. Topics may be <code>null</code>.</p>
+ */
+public interface TopicMetrics {
+    /**
+     * Called whenever events are published to a topic.
+     *
+     * @param topic      The topic the events were published to
+     * @param events     The number of events published
+     * @param deliveries The number of deliveries caused by the events, i.e. the number of events
+     *                   multiplied by the number of subscribers
+     */
+    void published(Object topic, int events, int deliveries);
+
+    /**
+     * Called whenever a task or listener callback for a topic has finished.
+     *
+     * @param topic         The topic the task was executed for
+     * @param durationNanos The time the execution took in nanoseconds
+     * @param failed        True if the execution threw an exception, false otherwise
+     */
+    void executed(Object topic, long durationNanos, boolean failed);
+
+    /**
+     * Called whenever the number of tasks waiting for execution in a topic has changed.
+     *
+     * @param topic The topic the tasks are waiting in
+     * @param depth The current number of waiting tasks
+     */
+    void queueDepthChanged(Object topic, int depth);
+}
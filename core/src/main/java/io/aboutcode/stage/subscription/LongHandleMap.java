@@ -0,0 +1,150 @@
+package io.aboutcode.stage.subscription;
+
+import java.util.Arrays;
+
+/**
+ * A map of primitive long handles to values using open addressing with linear probing. Compared to
+ * a {@link java.util.HashMap} this neither boxes keys nor allocates a node per entry. This is not
+ * thread safe and does not support <code>null</code> values.
+ *
+ * @param <ValueT> The type of values stored in the map
+ */
+final class LongHandleMap<ValueT> {
+    private static final int MINIMUM_CAPACITY = 16;
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+    private int shift;
+
+    LongHandleMap() {
+        allocate(MINIMUM_CAPACITY);
+    }
+
+    /**
+     * Returns the value for the specified handle or <code>null</code> if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    ValueT get(long handle) {
+        for (int index = index(handle); values[index] != null; index = (index + 1) & mask) {
+            if (keys[index] == handle) {
+                return (ValueT) values[index];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds the specified value for the specified handle and returns the value previously stored
+     * for the handle, if any.
+     */
+    @SuppressWarnings("unchecked")
+    ValueT put(long handle, ValueT value) {
+        int index = index(handle);
+        for (; values[index] != null; index = (index + 1) & mask) {
+            if (keys[index] == handle) {
+                ValueT previous = (ValueT) values[index];
+                values[index] = value;
+                return previous;
+            }
+        }
+        keys[index] = handle;
+        values[index] = value;
+        // keep the load factor at or below one half so probe sequences stay short
+        if (++size > (mask + 1) >> 1) {
+            resize((mask + 1) << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the value for the specified handle and returns it, if any.
+     */
+    @SuppressWarnings("unchecked")
+    ValueT remove(long handle) {
+        for (int index = index(handle); values[index] != null; index = (index + 1) & mask) {
+            if (keys[index] == handle) {
+                ValueT previous = (ValueT) values[index];
+                closeGap(index);
+                size--;
+                return previous;
+            }
+        }
+        return null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        if (mask + 1 > MINIMUM_CAPACITY) {
+            allocate(MINIMUM_CAPACITY);
+        } else {
+            Arrays.fill(values, null);
+        }
+        size = 0;
+    }
+
+    /**
+     * Returns all values of this map in the specified array if it is large enough, otherwise in a
+     * new array of the same type.
+     */
+    @SuppressWarnings("unchecked")
+    ValueT[] toArray(ValueT[] array) {
+        ValueT[] result = array.length >= size ? array : Arrays.copyOf(array, size);
+        int index = 0;
+        for (Object value : values) {
+            if (value != null) {
+                result[index++] = (ValueT) value;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Shifts back entries following the removed slot that would otherwise become unreachable, so no
+     * tombstones are needed.
+     */
+    private void closeGap(int removed) {
+        int gap = removed;
+        for (int index = (gap + 1) & mask; values[index] != null; index = (index + 1) & mask) {
+            int home = index(keys[index]);
+            // the entry may move into the gap if its home slot does not lie between gap and index
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                keys[gap] = keys[index];
+                values[gap] = values[index];
+                gap = index;
+            }
+        }
+        values[gap] = null;
+    }
+
+    private int index(long handle) {
+        // fibonacci hashing spreads sequential handles evenly across the table
+        return (int) ((handle * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int index = index(oldKeys[i]);
+                while (values[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+}
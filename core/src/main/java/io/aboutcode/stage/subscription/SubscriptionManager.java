@@ -1,18 +1,26 @@
 package io.aboutcode.stage.subscription;
 
+import io.aboutcode.stage.concurrent.OverflowPolicy;
 import io.aboutcode.stage.concurrent.PooledTopicExecutor;
 import io.aboutcode.stage.concurrent.TopicExecutor;
-import java.util.Collection;
+import io.aboutcode.stage.concurrent.VirtualThreadTopicExecutor;
+import io.aboutcode.stage.metrics.TopicMetrics;
+import java.lang.reflect.Array;
+import java.util.ArrayDeque;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * <p>Standard implementation of a subscriber/consumer pattern that allows for synchronous or
@@ -25,7 +33,34 @@ import java.util.stream.Collectors;
  * <p>Generation of subscription handles can be customized by specifying a factory for handle
  * generation. A default handle factory is available and generates incrementing long numbers.
  * However, no assumption should be made on the generated default handles when it comes to sequence,
- * order or size.</p>
+ * order or size. Handles generated by a {@link LongHandleFactory}, such as the default handle
+ * factory, are indexed in a primitive map, so a subscription does not cost a boxed handle and a map
+ * entry in addition to the subscription itself.</p>
+ *
+ * <p>Publishing is optimized for subscriptions that change far less frequently than events are
+ * published: the subscribers of each topic are published from an immutable snapshot that is only
+ * rebuilt on the first publication after subscriptions have changed, so publishing does not
+ * require any locking or copying. Subscribing and unsubscribing take constant time.</p>
+ *
+ * <p>In addition to subscribing to a topic, listeners can subscribe to a pattern of hierarchical
+ * topics. Hierarchical topics are strings whose levels are separated by {@value
+ * #TOPIC_SEPARATOR}, e.g. <code>prices/EUR/spot</code>. In a pattern, {@value
+ * #SINGLE_LEVEL_WILDCARD} matches exactly one level and {@value #MULTI_LEVEL_WILDCARD} - which may
+ * only be used as the last level - matches the preceding levels and any levels below them: both
+ * <code>prices/*&#47;spot</code> and <code>prices/#</code> match <code>prices/EUR/spot</code>.
+ * Pattern subscriptions are kept in a trie, so publishing to a string topic resolves matching
+ * patterns in time proportional to the depth of the topic rather than the number of patterns,
+ * without allocating anything but the resulting array of subscribers if any pattern
+ * matches.</p>
+ *
+ * <p>By default, asynchronous deliveries to the subscribers of a topic share the lane of that
+ * topic, so a slow subscriber delays all other subscribers of the topic. Subscription managers
+ * created through a {@link SubscriptionManagerBuilder} can instead deliver to each subscriber in a
+ * lane of its own, conflate the events pending for a lagging subscriber and limit the number of
+ * events pending per subscriber. They can also report
+ * metrics to {@link TopicMetrics}: publications are recorded under the topic published to -
+ * events published to all subscribers under the <code>null</code> topic - while listener
+ * callbacks are recorded under the topic or pattern the listener subscribed to.</p>
  *
  * @param <HandleT>   The type of handle this subscription manager uses for identification of
  *                    subscribers (standard: Long)
@@ -33,6 +68,19 @@ import java.util.stream.Collectors;
  * @param <HandbackT> The type of handback that this manager return to events
  */
 public final class SubscriptionManager<HandleT, ListenerT, HandbackT> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SubscriptionManager.class);
+    /**
+     * The separator of levels in hierarchical topics
+     */
+    public static final String TOPIC_SEPARATOR = "/";
+    /**
+     * The wildcard matching exactly one level of a hierarchical topic
+     */
+    public static final String SINGLE_LEVEL_WILDCARD = "*";
+    /**
+     * The wildcard matching any number of levels at the end of a hierarchical topic
+     */
+    public static final String MULTI_LEVEL_WILDCARD = "#";
     private static final TopicExecutor DEFAULT_EXECUTOR = new TopicExecutor() {
         @Override
         public void execute(Object topic, Runnable task) {
@@ -44,26 +92,65 @@ public final class SubscriptionManager<HandleT, ListenerT, HandbackT> {
             task.run();
         }
     };
-    private final Map<Object, Set<ListenerWrapper>> topicSubscriptions = new HashMap<>();
-    private final Map<HandleT, ListenerWrapper> listeners = new HashMap<>();
+    // ConcurrentHashMap does not support null keys, so the null topic is mapped to a marker
+    private static final Object NULL_TOPIC = new Object();
+    // topics are only modified while holding the monitor, but read without locking
+    private final ConcurrentMap<Object, TopicSubscriptions> topicSubscriptions =
+            new ConcurrentHashMap<>();
+    // exactly one of the indices is used, depending on the type of handle factory
+    private final Map<HandleT, ListenerWrapper> listeners;
+    private final LongHandleMap<ListenerWrapper> longListeners;
+    private final ListenerWrapper[] noSubscribers;
+    // root of the trie of pattern subscriptions, modified under the monitor like the topics
+    private final PatternNode patterns;
     private final HandleFactory<HandleT> handleFactory;
+    private final LongHandleFactory longHandleFactory;
     private final Object monitor = new Object();
+    // snapshot of the subscribers of all topics, null if it needs to be rebuilt
+    private volatile ListenerWrapper[] allSubscriptions;
 
     private final TopicExecutor executor;
+    private final boolean subscriberLanes;
+    private final int laneCapacity;
+    private final OverflowPolicy overflowPolicy;
+    // null if no metrics are recorded
+    private final TopicMetrics metrics;
 
-    private SubscriptionManager(HandleFactory<HandleT> handleFactory, TopicExecutor executor) {
-        this.executor = executor;
+    SubscriptionManager(HandleFactory<HandleT> handleFactory,
+                        TopicExecutor executor,
+                        boolean subscriberLanes,
+                        int laneCapacity,
+                        OverflowPolicy overflowPolicy,
+                        TopicMetrics metrics) {
+        this.metrics = metrics;
+        this.laneCapacity = laneCapacity;
+        this.overflowPolicy = overflowPolicy;
+        this.executor = executor == null ? DEFAULT_EXECUTOR : executor;
+        this.subscriberLanes = subscriberLanes && this.executor != DEFAULT_EXECUTOR;
         this.handleFactory = handleFactory;
+        if (handleFactory instanceof LongHandleFactory) {
+            this.longHandleFactory = (LongHandleFactory) handleFactory;
+            this.longListeners = new LongHandleMap<>();
+            this.listeners = null;
+        } else {
+            this.longHandleFactory = null;
+            this.longListeners = null;
+            this.listeners = new HashMap<>();
+        }
+        this.noSubscribers = newSubscribers(0);
+        this.allSubscriptions = noSubscribers;
+        this.patterns = new PatternNode();
     }
 
     /**
-     * A standard handle factory that generates incrementing long values.
+     * A standard handle factory that generates incrementing long values. The returned factory is
+     * a {@link LongHandleFactory}.
      *
      * @return An implementation of {@link HandleFactory} that generates incrementing long values
      */
     public static HandleFactory<Long> IncrementingLongHandleFactory() {
         AtomicLong handleGenerator = new AtomicLong();
-        return handleGenerator::incrementAndGet;
+        return (LongHandleFactory) handleGenerator::incrementAndGet;
     }
 
     /**
@@ -105,6 +192,44 @@ public final class SubscriptionManager<HandleT, ListenerT, HandbackT> {
         return asynchronous(IncrementingLongHandleFactory());
     }
 
+    /**
+     * Creates a subscription manager that executes tasks asynchronously on the specified executor,
+     * using the default long handle factory. This allows the executor to be sized for the expected
+     * load, e.g. through a {@link io.aboutcode.stage.concurrent.PooledTopicExecutorBuilder}.
+     *
+     * @param executor    The executor to execute tasks on
+     * @param <ListenerT> The listener type this subscription manager uses to consume published
+     *                    events.
+     * @param <HandbackT> The type of handback that should be passed to a task execution
+     *
+     * @return A subscription manager that executes tasks asynchronously on the specified executor,
+     * using the default long handle factory.
+     */
+    public static <ListenerT, HandbackT> SubscriptionManager<Long, ListenerT, HandbackT> asynchronous(
+            TopicExecutor executor) {
+        return asynchronous(IncrementingLongHandleFactory(), executor);
+    }
+
+    /**
+     * Creates a subscription manager that executes tasks asynchronously on virtual threads, using
+     * the default long handle factory. This is suited for listeners that block, e.g. on database
+     * access or network I/O. Requires Java 21 or later.
+     *
+     * @param <ListenerT> The listener type this subscription manager uses to consume published
+     *                    events.
+     * @param <HandbackT> The type of handback that should be passed to a task execution
+     *
+     * @return A subscription manager that executes tasks asynchronously on virtual threads, using
+     * the default long handle factory.
+     *
+     * @throws UnsupportedOperationException Thrown if the runtime does not support virtual
+     *                                       threads
+     * @see VirtualThreadTopicExecutor
+     */
+    public static <ListenerT, HandbackT> SubscriptionManager<Long, ListenerT, HandbackT> virtual() {
+        return virtual(IncrementingLongHandleFactory());
+    }
+
     /**
      * Creates a subscription manager that executes tasks synchronously, using the specified handle
      * factory.
@@ -121,7 +246,8 @@ public final class SubscriptionManager<HandleT, ListenerT, HandbackT> {
      */
     public static <HandleT, ListenerT, HandbackT> SubscriptionManager<HandleT, ListenerT, HandbackT> synchronous(
             HandleFactory<HandleT> handleFactory) {
-        return new SubscriptionManager<>(handleFactory, DEFAULT_EXECUTOR);
+        return new SubscriptionManager<>(handleFactory, DEFAULT_EXECUTOR, false,
+                                         Integer.MAX_VALUE, OverflowPolicy.BLOCK, null);
     }
 
     /**
@@ -140,22 +266,66 @@ public final class SubscriptionManager<HandleT, ListenerT, HandbackT> {
      */
     public static <HandleT, ListenerT, HandbackT> SubscriptionManager<HandleT, ListenerT, HandbackT> asynchronous(
             HandleFactory<HandleT> handleFactory) {
-        return new SubscriptionManager<>(handleFactory, new PooledTopicExecutor());
+        return asynchronous(handleFactory, new PooledTopicExecutor());
+    }
+
+    /**
+     * Creates a subscription manager that executes tasks asynchronously on virtual threads, using
+     * the specified handle factory. This is suited for listeners that block, e.g. on database
+     * access or network I/O. Requires Java 21 or later.
+     *
+     * @param handleFactory The factory to create handles for subscriptions
+     * @param <HandleT>     The type of handle this subscription manager uses for identification of
+     *                      subscribers
+     * @param <ListenerT>   The listener type this subscription manager uses to consume published
+     *                      events.
+     * @param <HandbackT>   The type of handback that should be passed to a task execution
+     *
+     * @return A subscription manager that executes tasks asynchronously on virtual threads, using
+     * the specified handle factory.
+     *
+     * @throws UnsupportedOperationException Thrown if the runtime does not support virtual
+     *                                       threads
+     * @see VirtualThreadTopicExecutor
+     */
+    public static <HandleT, ListenerT, HandbackT> SubscriptionManager<HandleT, ListenerT, HandbackT> virtual(
+            HandleFactory<HandleT> handleFactory) {
+        return asynchronous(handleFactory, new VirtualThreadTopicExecutor());
     }
 
     /**
-     * Returns all topics that currently have at least one active subscription.
+     * Creates a subscription manager that executes tasks asynchronously on the specified executor,
+     * using the specified handle factory.
+     *
+     * @param handleFactory The factory to create handles for subscriptions
+     * @param executor      The executor to execute tasks on
+     * @param <HandleT>     The type of handle this subscription manager uses for identification of
+     *                      subscribers
+     * @param <ListenerT>   The listener type this subscription manager uses to consume published
+     *                      events.
+     * @param <HandbackT>   The type of handback that should be passed to a task execution
+     *
+     * @return A subscription manager that executes tasks asynchronously on the specified executor,
+     * using the specified handle factory.
+     */
+    public static <HandleT, ListenerT, HandbackT> SubscriptionManager<HandleT, ListenerT, HandbackT> asynchronous(
+            HandleFactory<HandleT> handleFactory, TopicExecutor executor) {
+        return new SubscriptionManager<>(handleFactory, Objects.requireNonNull(executor), false,
+                                         Integer.MAX_VALUE, OverflowPolicy.BLOCK, null);
+    }
+
+    /**
+     * Returns all topics that currently have at least one active subscription. Patterns that
+     * listeners subscribed to are not included.
      *
      * @return All topics that currently have at lest one active subscription
      */
     public Set<Object> getTopics() {
-        synchronized (monitor) {
-            return topicSubscriptions
-                    .entrySet()
-                    .stream()
-                    .filter(entry -> !entry.getValue().isEmpty())
-                    .collect(Collectors.toSet());
+        Set<Object> topics = new HashSet<>();
+        for (Object topic : topicSubscriptions.keySet()) {
+            topics.add(topic == NULL_TOPIC ? null : topic);
         }
+        return topics;
     }
 
     /**
@@ -192,36 +362,106 @@ public final class SubscriptionManager<HandleT, ListenerT, HandbackT> {
      * @return The handle that can be used to unsubscribe the listener
      */
     public HandleT subscribe(Object topic, HandbackT handback, ListenerT listener) {
-        HandleT handle = handleFactory.create();
-        ListenerWrapper listenerWrapper = new ListenerWrapper(handle, listener, handback, topic);
+        ListenerWrapper listenerWrapper = newListenerWrapper(listener, handback, topic, false);
+        Object key = key(topic);
         synchronized (monitor) {
-            Set<ListenerWrapper> topicListeners;
-            if (listeners.containsKey(handle)) {
+            checkUnique(listenerWrapper);
+            TopicSubscriptions topicListeners = topicSubscriptions.get(key);
+            if (topicListeners == null) {
+                topicListeners = new TopicSubscriptions();
+                topicSubscriptions.put(key, topicListeners);
+            }
+            return register(topicListeners, listenerWrapper);
+        }
+    }
+
+    /**
+     * Subscribes the specified listener to all hierarchical topics matching the specified pattern
+     * without a handback.
+     *
+     * @param pattern  The pattern of topics to subscribe to
+     * @param listener The listener to notify for an event
+     *
+     * @return The handle that can be used to unsubscribe the listener
+     *
+     * @throws IllegalArgumentException Thrown if the pattern is invalid
+     */
+    public HandleT subscribeToPattern(String pattern, ListenerT listener) {
+        return subscribeToPattern(pattern, null, listener);
+    }
+
+    /**
+     * Subscribes the specified listener to all hierarchical topics matching the specified pattern.
+     * The specified handback will be available to the listener for each event notification. A
+     * listener subscribed to both a topic and a pattern matching that topic will be notified
+     * twice.
+     *
+     * @param pattern  The pattern of topics to subscribe to
+     * @param handback The handback
+     * @param listener The listener to notify for an event
+     *
+     * @return The handle that can be used to unsubscribe the listener
+     *
+     * @throws IllegalArgumentException Thrown if the pattern is invalid
+     */
+    public HandleT subscribeToPattern(String pattern, HandbackT handback, ListenerT listener) {
+        String[] levels = levels(Objects.requireNonNull(pattern));
+        for (int i = 0; i < levels.length - 1; i++) {
+            if (MULTI_LEVEL_WILDCARD.equals(levels[i])) {
                 throw new IllegalArgumentException(String.format(
-                        "Listener with handle '%s' already is subscribed - handle factory might not produce unique results",
-                        handle));
+                        "Wildcard '%s' must be the last level of pattern '%s'",
+                        MULTI_LEVEL_WILDCARD, pattern));
             }
+        }
 
-            if (!topicSubscriptions.containsKey(topic)) {
-                topicListeners = new HashSet<>();
-                topicSubscriptions.put(topic, topicListeners);
-            } else {
-                topicListeners = topicSubscriptions.get(topic);
-                if (topicListeners.contains(listenerWrapper)) {
-                    @SuppressWarnings("OptionalGetWithoutIsPresent")
-                    ListenerWrapper existingListener = topicListeners
-                            .stream()
-                            .filter(current -> Objects.equals(current, listenerWrapper))
-                            .findFirst()
-                            .get();
-                    return existingListener.handle;
-                }
+        ListenerWrapper listenerWrapper = newListenerWrapper(listener, handback, pattern, true);
+        synchronized (monitor) {
+            checkUnique(listenerWrapper);
+            PatternNode node = patterns;
+            for (String level : levels) {
+                node = node.addChild(level);
             }
+            return register(node.subscriptions, listenerWrapper);
+        }
+    }
 
-            listeners.put(handle, listenerWrapper);
-            topicListeners.add(listenerWrapper);
+    private ListenerWrapper newListenerWrapper(ListenerT listener,
+                                               HandbackT handback,
+                                               Object topic,
+                                               boolean pattern) {
+        if (longHandleFactory != null) {
+            return new ListenerWrapper(null, longHandleFactory.createLong(), listener, handback,
+                                       topic, pattern);
         }
-        return handle;
+        return new ListenerWrapper(handleFactory.create(), 0, listener, handback, topic, pattern);
+    }
+
+    private void checkUnique(ListenerWrapper listenerWrapper) {
+        boolean duplicate = longListeners != null
+                            ? longListeners.get(listenerWrapper.longHandle) != null
+                            : listeners.containsKey(listenerWrapper.handle);
+        if (duplicate) {
+            throw new IllegalArgumentException(String.format(
+                    "Listener with handle '%s' already is subscribed - handle factory might not produce unique results",
+                    listenerWrapper.handle()));
+        }
+    }
+
+    private HandleT register(TopicSubscriptions topicListeners, ListenerWrapper listenerWrapper) {
+        ListenerWrapper existingListener = topicListeners.subscribers.get(listenerWrapper);
+        if (existingListener != null) {
+            return existingListener.handle();
+        }
+
+        if (longListeners != null) {
+            longListeners.put(listenerWrapper.longHandle, listenerWrapper);
+        } else {
+            listeners.put(listenerWrapper.handle, listenerWrapper);
+        }
+        topicListeners.subscribers.put(listenerWrapper, listenerWrapper);
+        topicListeners.snapshot = null;
+        allSubscriptions = null;
+        return listenerWrapper.handle();
     }
 
     /**
@@ -229,8 +469,17 @@ public final class SubscriptionManager<HandleT, ListenerT, HandbackT> {
      */
     public void clear() {
         synchronized (monitor) {
+            for (ListenerWrapper listenerWrapper : registeredListeners()) {
+                listenerWrapper.cancelled = true;
+            }
             topicSubscriptions.clear();
-            listeners.clear();
+            patterns.clearChildren();
+            if (longListeners != null) {
+                longListeners.clear();
+            } else {
+                listeners.clear();
+            }
+            allSubscriptions = noSubscribers;
         }
     }
 
@@ -241,15 +490,70 @@ public final class SubscriptionManager<HandleT, ListenerT, HandbackT> {
      */
     public void unsubscribe(HandleT handle) {
         synchronized (monitor) {
-            if (listeners.containsKey(handle)) {
-                ListenerWrapper listenerWrapper = listeners.remove(handle);
-                Set<ListenerWrapper> topicSubscriptions = this.topicSubscriptions
-                        .get(listenerWrapper.topic);
-                topicSubscriptions.remove(listenerWrapper);
+            ListenerWrapper listenerWrapper;
+            if (longListeners != null) {
+                listenerWrapper =
+                        handle instanceof Long ? longListeners.remove((Long) handle) : null;
+            } else {
+                listenerWrapper = listeners.remove(handle);
+            }
+            if (listenerWrapper != null) {
+                detach(listenerWrapper);
             }
         }
     }
 
+    /**
+     * Unsubscribes the specified listener unless it has been unsubscribed already.
+     */
+    private void cancel(ListenerWrapper listenerWrapper) {
+        synchronized (monitor) {
+            if (longListeners != null) {
+                if (longListeners.get(listenerWrapper.longHandle) != listenerWrapper) {
+                    return;
+                }
+                longListeners.remove(listenerWrapper.longHandle);
+            } else if (!listeners.remove(listenerWrapper.handle, listenerWrapper)) {
+                return;
+            }
+            detach(listenerWrapper);
+        }
+    }
+
+    private void detach(ListenerWrapper listenerWrapper) {
+        listenerWrapper.cancelled = true;
+        if (listenerWrapper.pattern) {
+            removePattern(patterns, levels((String) listenerWrapper.topic), 0, listenerWrapper);
+        } else {
+            Object key = key(listenerWrapper.topic);
+            TopicSubscriptions topicListeners = topicSubscriptions.get(key);
+            topicListeners.subscribers.remove(listenerWrapper);
+            if (topicListeners.subscribers.isEmpty()) {
+                topicSubscriptions.remove(key);
+            }
+            topicListeners.snapshot = null;
+        }
+        allSubscriptions = null;
+    }
+
+    /**
+     * Removes the pattern subscription from the trie below the specified node, pruning all branches
+     * that no longer lead to any subscription. Returns true if the node itself has become empty.
+     */
+    private boolean removePattern(PatternNode node,
+                                  String[] levels,
+                                  int index,
+                                  ListenerWrapper listenerWrapper) {
+        if (index == levels.length) {
+            node.subscriptions.subscribers.remove(listenerWrapper);
+            node.subscriptions.snapshot = null;
+        } else if (removePattern(node.children.get(levels[index]), levels, index + 1,
+                                 listenerWrapper)) {
+            node.removeChild(levels[index]);
+        }
+        return node.isEmpty();
+    }
+
     /**
      * Notifies all subscribers to the specified topic of the specified event.
      *
@@ -257,23 +561,74 @@ public final class SubscriptionManager<HandleT, ListenerT, HandbackT> {
      * @param action The action to execute for each listener
      */
     public void forTopic(Object topic, SubscriptionAction<ListenerT, HandbackT> action) {
-        List<ListenerWrapper> subscribers = new LinkedList<>();
-        synchronized (monitor) {
-            if (topicSubscriptions.containsKey(topic)) {
-                subscribers.addAll(topicSubscriptions.get(topic));
+        forTopic(topic, null, action);
+    }
+
+    /**
+     * Notifies all subscribers to the specified topic of the specified event, which may be
+     * conflated with other events of the same key. If this subscription manager delivers to each
+     * subscriber in a lane of its own and an event of the same key is still pending for a
+     * subscriber, the pending event is replaced by the specified one, retaining its position. Thus
+     * a lagging subscriber only receives the latest event per key. Otherwise, the event is
+     * delivered like any other event.
+     *
+     * @param topic  The topic that subscribers should be notified for.
+     * @param key    The key to conflate events by or <code>null</code> if the event must not be
+     *               conflated
+     * @param action The action to execute for each listener
+     *
+     * @see SubscriptionManagerBuilder#withSubscriberLanes(boolean)
+     */
+    public void forTopic(Object topic,
+                         Object key,
+                         SubscriptionAction<ListenerT, HandbackT> action) {
+        ListenerWrapper[] subscribers = subscribers(topic);
+        if (metrics != null) {
+            metrics.published(topic, 1, subscribers.length);
+        }
+        for (ListenerWrapper subscriber : subscribers) {
+            if (executor == DEFAULT_EXECUTOR) {
+                subscriber.apply(action);
+            } else if (subscriberLanes) {
+                subscriber.lane.deliver(key, action);
+            } else {
+                executor.execute(topic, () -> subscriber.apply(action));
             }
         }
+    }
 
-        subscribers
-                .forEach(wrapper ->
-                                 executor
-                                         .execute(topic,
-                                                  () -> action.apply(wrapper.listener,
-                                                                     wrapper.handback,
-                                                                     () -> unsubscribe(
-                                                                             wrapper.handle))
-                                         )
-                );
+    /**
+     * Notifies all subscribers to the specified topic of the specified events. Each subscriber
+     * receives all events in the order of the list within a single execution, which is
+     * considerably cheaper than publishing the events one by one. If a subscription is cancelled
+     * while the events are delivered, the subscriber will not receive any of the remaining events.
+     *
+     * @param topic   The topic that subscribers should be notified for.
+     * @param actions The actions to execute for each listener, in order
+     */
+    public void forTopic(Object topic,
+                         List<? extends SubscriptionAction<ListenerT, HandbackT>> actions) {
+        ListenerWrapper[] subscribers = subscribers(topic);
+        if (metrics != null) {
+            metrics.published(topic, actions.size(), actions.size() * subscribers.length);
+        }
+        if (subscribers.length == 0 || actions.isEmpty()) {
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        SubscriptionAction<ListenerT, HandbackT>[] batch =
+                (SubscriptionAction<ListenerT, HandbackT>[]) actions
+                        .toArray(new SubscriptionAction<?, ?>[actions.size()]);
+        for (ListenerWrapper subscriber : subscribers) {
+            if (executor == DEFAULT_EXECUTOR) {
+                subscriber.applyAll(batch);
+            } else if (subscriberLanes) {
+                subscriber.lane.deliver(null, batch);
+            } else {
+                executor.execute(topic, () -> subscriber.applyAll(batch));
+            }
+        }
     }
 
     /**
@@ -282,23 +637,129 @@ public final class SubscriptionManager<HandleT, ListenerT, HandbackT> {
      * @param action The action to execute for each listener
      */
     public void forAll(SubscriptionAction<ListenerT, HandbackT> action) {
-        final List<ListenerWrapper> subscribers;
-        synchronized (monitor) {
-            subscribers = topicSubscriptions
-                    .values()
-                    .stream()
-                    .flatMap(Collection::stream)
-                    .collect(Collectors.toList());
+        ListenerWrapper[] subscribers = allSubscriptions();
+        if (metrics != null) {
+            metrics.published(null, 1, subscribers.length);
+        }
+        for (ListenerWrapper subscriber : subscribers) {
+            if (executor == DEFAULT_EXECUTOR) {
+                subscriber.apply(action);
+            } else if (subscriberLanes) {
+                subscriber.lane.deliver(null, action);
+            } else {
+                executor.execute(() -> subscriber.apply(action));
+            }
         }
-        subscribers
-                .forEach(wrapper ->
-                                 executor
-                                         .execute(() -> action.apply(wrapper.listener,
-                                                                     wrapper.handback,
-                                                                     () -> unsubscribe(
-                                                                             wrapper.handle))
-                                         )
-                );
+    }
+
+    private ListenerWrapper[] allSubscriptions() {
+        ListenerWrapper[] subscribers = allSubscriptions;
+        if (subscribers == null) {
+            synchronized (monitor) {
+                subscribers = allSubscriptions;
+                if (subscribers == null) {
+                    subscribers = registeredListeners();
+                    allSubscriptions = subscribers;
+                }
+            }
+        }
+        return subscribers;
+    }
+
+    private ListenerWrapper[] registeredListeners() {
+        return longListeners != null
+               ? longListeners.toArray(noSubscribers)
+               : listeners.values().toArray(noSubscribers);
+    }
+
+    /**
+     * Returns the subscribers of the specified topic and of all patterns matching it.
+     */
+    private ListenerWrapper[] subscribers(Object topic) {
+        TopicSubscriptions topicListeners = topicSubscriptions.get(key(topic));
+        ListenerWrapper[] subscribers =
+                topicListeners == null ? noSubscribers : topicListeners.snapshot();
+        if (!(topic instanceof String) || !patterns.hasChildren()) {
+            return subscribers;
+        }
+
+        // matches are counted to size the result before it is filled, which is repeated if the
+        // pattern subscriptions changed in between and both passes disagree
+        String name = (String) topic;
+        while (true) {
+            int size = collectPatterns(patterns, name, 0, null, subscribers.length);
+            if (size == subscribers.length) {
+                return subscribers;
+            }
+            ListenerWrapper[] result = newSubscribers(size);
+            System.arraycopy(subscribers, 0, result, 0, subscribers.length);
+            if (collectPatterns(patterns, name, 0, result, subscribers.length) == size) {
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Copies the subscribers of all patterns below the specified node matching the levels of the
+     * topic starting at the specified index into the result, starting at the specified offset. If
+     * the result is null or too small, the subscribers are only counted.
+     *
+     * @return The offset following the last matching subscriber
+     */
+    private int collectPatterns(PatternNode node, String topic, int start,
+                                ListenerWrapper[] result, int offset) {
+        PatternNode remainder = node.child(MULTI_LEVEL_WILDCARD, 0, MULTI_LEVEL_WILDCARD.length());
+        if (remainder != null) {
+            offset = addMatches(remainder, result, offset);
+        }
+        if (start > topic.length()) {
+            return addMatches(node, result, offset);
+        }
+
+        int end = topic.indexOf(TOPIC_SEPARATOR, start);
+        if (end < 0) {
+            end = topic.length();
+        }
+        // a level that is a wildcard itself has already been matched by the wildcard's subscribers
+        PatternNode level = isLevel(topic, start, end, MULTI_LEVEL_WILDCARD)
+                            ? null
+                            : node.child(topic, start, end);
+        if (level != null) {
+            offset = collectPatterns(level, topic, end + 1, result, offset);
+        }
+        PatternNode anyLevel = isLevel(topic, start, end, SINGLE_LEVEL_WILDCARD)
+                               ? null
+                               : node.child(SINGLE_LEVEL_WILDCARD, 0,
+                                            SINGLE_LEVEL_WILDCARD.length());
+        if (anyLevel != null) {
+            offset = collectPatterns(anyLevel, topic, end + 1, result, offset);
+        }
+        return offset;
+    }
+
+    private int addMatches(PatternNode node, ListenerWrapper[] result, int offset) {
+        ListenerWrapper[] subscribers = node.subscriptions.snapshot();
+        if (result != null && offset + subscribers.length <= result.length) {
+            System.arraycopy(subscribers, 0, result, offset, subscribers.length);
+        }
+        return offset + subscribers.length;
+    }
+
+    private static boolean isLevel(String topic, int start, int end, String level) {
+        return end - start == level.length() && topic.startsWith(level, start);
+    }
+
+    private static String[] levels(String pattern) {
+        return pattern.split(TOPIC_SEPARATOR, -1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ListenerWrapper[] newSubscribers(int size) {
+        return (ListenerWrapper[]) Array.newInstance(ListenerWrapper.class, size);
+    }
+
+    private static Object key(Object topic) {
+        return topic == null ? NULL_TOPIC : topic;
     }
 
     /**
@@ -310,6 +771,19 @@ public final class SubscriptionManager<HandleT, ListenerT, HandbackT> {
         HandleT create();
     }
 
+    /**
+     * A factory generating primitive long handles. Subscription managers using a factory of this
+     * type index their subscriptions without boxing the handles.
+     */
+    public interface LongHandleFactory extends HandleFactory<Long> {
+        long createLong();
+
+        @Override
+        default Long create() {
+            return createLong();
+        }
+    }
+
     /**
      * An event that is published to listeners.
      *
@@ -338,20 +812,346 @@ public final class SubscriptionManager<HandleT, ListenerT, HandbackT> {
         void cancel();
     }
 
-    private class ListenerWrapper {
-        private ListenerT listener;
-        private HandbackT handback;
-        private Object topic;
-        private HandleT handle;
+    /**
+     * The subscriptions of a single topic. The subscribers are indexed by listener so that
+     * duplicate subscriptions are detected in constant time.
+     */
+    private final class TopicSubscriptions {
+        // guarded by the monitor and ordered by time of subscription
+        private final Map<ListenerWrapper, ListenerWrapper> subscribers = new LinkedHashMap<>();
+        // null if it needs to be rebuilt
+        private volatile ListenerWrapper[] snapshot = noSubscribers;
+
+        private ListenerWrapper[] snapshot() {
+            ListenerWrapper[] current = snapshot;
+            if (current == null) {
+                synchronized (monitor) {
+                    current = snapshot;
+                    if (current == null) {
+                        current = subscribers.keySet().toArray(noSubscribers);
+                        snapshot = current;
+                    }
+                }
+            }
+            return current;
+        }
+    }
+
+    /**
+     * A level in the trie of pattern subscriptions. Children are modified under the monitor only
+     * and read through an immutable index that is replaced whenever they change.
+     */
+    private final class PatternNode {
+        private final Map<String, PatternNode> children = new HashMap<>();
+        private final TopicSubscriptions subscriptions = new TopicSubscriptions();
+        private volatile ChildIndex index = ChildIndex.EMPTY;
+
+        private PatternNode addChild(String level) {
+            PatternNode child = children.get(level);
+            if (child == null) {
+                child = new PatternNode();
+                children.put(level, child);
+                index = new ChildIndex(children);
+            }
+            return child;
+        }
+
+        private void removeChild(String level) {
+            children.remove(level);
+            index = new ChildIndex(children);
+        }
+
+        private void clearChildren() {
+            children.clear();
+            index = ChildIndex.EMPTY;
+        }
+
+        private boolean hasChildren() {
+            return index.size > 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        private PatternNode child(String topic, int start, int end) {
+            return (PatternNode) index.get(topic, start, end);
+        }
+
+        private boolean isEmpty() {
+            return children.isEmpty() && subscriptions.subscribers.isEmpty();
+        }
+    }
+
+    /**
+     * An immutable open addressing table of the children of a pattern node, which looks up the
+     * child for a level of a topic by its range in the topic rather than by a substring.
+     */
+    private static final class ChildIndex {
+        private static final ChildIndex EMPTY = new ChildIndex(new HashMap<>());
+        private final String[] keys;
+        private final Object[] nodes;
+        private final int mask;
+        private final int size;
+
+        private ChildIndex(Map<String, ?> children) {
+            int capacity = 2;
+            while (capacity < children.size() * 2) {
+                capacity <<= 1;
+            }
+            keys = new String[capacity];
+            nodes = new Object[capacity];
+            mask = capacity - 1;
+            size = children.size();
+            children.forEach((key, node) -> {
+                int slot = spread(key.hashCode()) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                nodes[slot] = node;
+            });
+        }
+
+        private Object get(String topic, int start, int end) {
+            // same as the hash code of the substring
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + topic.charAt(i);
+            }
+            for (int slot = spread(hash) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+                String key = keys[slot];
+                if (key.length() == end - start && topic.startsWith(key, start)) {
+                    return nodes[slot];
+                }
+            }
+            return null;
+        }
+
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+    /**
+     * The delivery lane of a single subscriber. At most one task per lane is submitted to the
+     * executor at any time; that task delivers all events that are pending when it runs. Replacing
+     * a conflated event does not count against the capacity of the lane, adding one does.
+     */
+    private final class SubscriberLane implements Runnable, TopicExecutor.Subtopic {
+        private final ListenerWrapper subscriber;
+        // all fields below are guarded by this lane; pending holds actions, batches of actions and
+        // conflated actions
+        private ArrayDeque<Object> pending = new ArrayDeque<>();
+        // the pending event per conflation key, null if there is none
+        private Map<Object, ConflatedDelivery> conflated;
+        private boolean scheduled;
+
+        private SubscriberLane(ListenerWrapper subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public Object getParentTopic() {
+            return subscriber.topic;
+        }
+
+        private void deliver(Object key, Object delivery) {
+            synchronized (this) {
+                while (true) {
+                    ConflatedDelivery pendingDelivery =
+                            key == null || conflated == null ? null : conflated.get(key);
+                    if (pendingDelivery != null) {
+                        pendingDelivery.delivery = delivery;
+                        return;
+                    }
+                    if (pending.size() < laneCapacity) {
+                        break;
+                    }
+                    if (!overflow()) {
+                        LOGGER.debug("Discarding event for full lane of subscriber of '{}'",
+                                     subscriber.topic);
+                        return;
+                    }
+                }
+                if (key != null) {
+                    if (conflated == null) {
+                        conflated = new HashMap<>();
+                    }
+                    ConflatedDelivery conflatedDelivery = new ConflatedDelivery(key, delivery);
+                    conflated.put(key, conflatedDelivery);
+                    pending.add(conflatedDelivery);
+                } else {
+                    pending.add(delivery);
+                }
+                if (scheduled) {
+                    return;
+                }
+                scheduled = true;
+            }
+            schedule();
+        }
+
+        /**
+         * Returns true if the lane has to be checked again for room after applying the overflow
+         * policy, false if the event is to be discarded.
+         */
+        private boolean overflow() {
+            switch (overflowPolicy) {
+                case BLOCK:
+                    try {
+                        wait();
+                        return true;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException(String.format(
+                                "Interrupted while waiting for room in lane of subscriber of '%s'",
+                                subscriber.topic), e);
+                    }
+                case DROP_OLDEST:
+                    Object oldest = pending.poll();
+                    if (oldest instanceof ConflatedDelivery) {
+                        conflated.remove(((ConflatedDelivery) oldest).key);
+                    }
+                    LOGGER.debug("Discarding oldest event for full lane of subscriber of '{}'",
+                                 subscriber.topic);
+                    return true;
+                case DROP_NEWEST:
+                    return false;
+                case FAIL:
+                default:
+                    throw new RejectedExecutionException(String.format(
+                            "Lane of subscriber of '%s' is full", subscriber.topic));
+            }
+        }
+
+        private void schedule() {
+            try {
+                executor.execute(this, this);
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    scheduled = false;
+                }
+                throw e;
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void run() {
+            ArrayDeque<Object> deliveries;
+            synchronized (this) {
+                deliveries = pending;
+                pending = new ArrayDeque<>();
+                conflated = null;
+                if (laneCapacity != Integer.MAX_VALUE) {
+                    notifyAll();
+                }
+            }
+            for (Object delivery : deliveries) {
+                if (subscriber.cancelled) {
+                    break;
+                }
+                if (delivery instanceof ConflatedDelivery) {
+                    delivery = ((ConflatedDelivery) delivery).delivery;
+                }
+                try {
+                    if (delivery instanceof SubscriptionAction[]) {
+                        subscriber.applyAll((SubscriptionAction<ListenerT, HandbackT>[]) delivery);
+                    } else {
+                        subscriber.apply((SubscriptionAction<ListenerT, HandbackT>) delivery);
+                    }
+                } catch (Exception e) {
+                    LOGGER.warn(
+                            String.format("Delivering to subscriber of '%s' threw exception: %s",
+                                          subscriber.topic, e.getMessage()), e);
+                }
+            }
+            synchronized (this) {
+                if (pending.isEmpty() || subscriber.cancelled) {
+                    pending.clear();
+                    conflated = null;
+                    scheduled = false;
+                    notifyAll();
+                    return;
+                }
+            }
+            schedule();
+        }
+    }
+
+    /**
+     * A pending event of a conflation key, which is replaced in place by later events of the
+     * same key.
+     */
+    private static final class ConflatedDelivery {
+        private final Object key;
+        private Object delivery;
+
+        private ConflatedDelivery(Object key, Object delivery) {
+            this.key = key;
+            this.delivery = delivery;
+        }
+    }
+
+    private final class ListenerWrapper implements SubscriberContext {
+        private final ListenerT listener;
+        private final HandbackT handback;
+        private final Object topic;
+        // null if the handle is a primitive long handle
+        private final HandleT handle;
+        private final long longHandle;
+        private final boolean pattern;
+        private final int hashCode;
+        // null unless each subscriber is delivered to in a lane of its own
+        private final SubscriberLane lane;
+        private volatile boolean cancelled;
 
         private ListenerWrapper(HandleT handle,
+                                long longHandle,
                                 ListenerT listener,
                                 HandbackT handback,
-                                Object topic) {
+                                Object topic,
+                                boolean pattern) {
             this.handle = handle;
+            this.longHandle = longHandle;
             this.listener = listener;
             this.handback = handback;
             this.topic = topic;
+            this.pattern = pattern;
+            this.hashCode = 31 * Objects.hashCode(listener) + Objects.hashCode(topic);
+            this.lane = subscriberLanes ? new SubscriberLane(this) : null;
+        }
+
+        private void apply(SubscriptionAction<ListenerT, HandbackT> action) {
+            if (metrics == null) {
+                action.apply(listener, handback, this);
+                return;
+            }
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                action.apply(listener, handback, this);
+                failed = false;
+            } finally {
+                metrics.executed(topic, System.nanoTime() - start, failed);
+            }
+        }
+
+        private void applyAll(SubscriptionAction<ListenerT, HandbackT>[] actions) {
+            for (SubscriptionAction<ListenerT, HandbackT> action : actions) {
+                if (cancelled) {
+                    return;
+                }
+                apply(action);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private HandleT handle() {
+            return longListeners != null ? (HandleT) Long.valueOf(longHandle) : handle;
+        }
+
+        @Override
+        public void cancel() {
+            SubscriptionManager.this.cancel(this);
         }
 
         @Override
@@ -363,13 +1163,15 @@ public final class SubscriptionManager<HandleT, ListenerT, HandbackT> {
                 return false;
             }
             @SuppressWarnings("unchecked") final ListenerWrapper that = (ListenerWrapper) o;
-            return Objects.equals(listener, that.listener) &&
+            return hashCode == that.hashCode &&
+                   pattern == that.pattern &&
+                   Objects.equals(listener, that.listener) &&
                    Objects.equals(topic, that.topic);
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(listener, topic);
+            return hashCode;
         }
     }
 }
@@ -0,0 +1,169 @@
+package io.aboutcode.stage.subscription;
+
+import io.aboutcode.stage.concurrent.OverflowPolicy;
+import io.aboutcode.stage.concurrent.TopicExecutor;
+import io.aboutcode.stage.metrics.TopicMetrics;
+import io.aboutcode.stage.subscription.SubscriptionManager.HandleFactory;
+import java.util.Objects;
+
+/**
+ * Builder for {@link SubscriptionManager}s that need more control over delivery than the static
+ * factory methods of the subscription manager provide.
+ *
+ * @param <HandleT> The type of handle the built subscription manager uses for identification of
+ *                  subscribers
+ */
+public final class SubscriptionManagerBuilder<HandleT> {
+    private final HandleFactory<HandleT> handleFactory;
+    private final TopicExecutor executor;
+    private final boolean subscriberLanes;
+    private final int laneCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private final TopicMetrics metrics;
+
+    private SubscriptionManagerBuilder(HandleFactory<HandleT> handleFactory,
+                                       TopicExecutor executor,
+                                       boolean subscriberLanes,
+                                       int laneCapacity,
+                                       OverflowPolicy overflowPolicy,
+                                       TopicMetrics metrics) {
+        this.handleFactory = handleFactory;
+        this.executor = executor;
+        this.subscriberLanes = subscriberLanes;
+        this.laneCapacity = laneCapacity;
+        this.overflowPolicy = overflowPolicy;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Creates a new builder that by default uses the default long handle factory and executes
+     * tasks synchronously.
+     *
+     * @return A new builder
+     */
+    public static SubscriptionManagerBuilder<Long> create() {
+        return new SubscriptionManagerBuilder<>(SubscriptionManager.IncrementingLongHandleFactory(),
+                                                null,
+                                                false,
+                                                Integer.MAX_VALUE,
+                                                OverflowPolicy.BLOCK,
+                                                null);
+    }
+
+    /**
+     * Builds the subscription manager as defined by this builder.
+     *
+     * @param <ListenerT> The listener type the subscription manager uses to consume published
+     *                    events.
+     * @param <HandbackT> The type of handback that should be passed to a task execution
+     *
+     * @return The created subscription manager
+     */
+    public <ListenerT, HandbackT> SubscriptionManager<HandleT, ListenerT, HandbackT> build() {
+        return new SubscriptionManager<>(handleFactory, executor, subscriberLanes, laneCapacity,
+                                         overflowPolicy, metrics);
+    }
+
+    /**
+     * Sets the factory to create handles for subscriptions.
+     *
+     * @param handleFactory The factory to create handles for subscriptions
+     * @param <NewHandleT>  The type of handle the subscription manager uses for identification of
+     *                      subscribers
+     *
+     * @return This for fluent interface
+     */
+    public <NewHandleT> SubscriptionManagerBuilder<NewHandleT> withHandleFactory(
+            HandleFactory<NewHandleT> handleFactory) {
+        return new SubscriptionManagerBuilder<>(Objects.requireNonNull(handleFactory),
+                                                executor,
+                                                subscriberLanes,
+                                                laneCapacity,
+                                                overflowPolicy,
+                                                metrics);
+    }
+
+    /**
+     * Makes the subscription manager execute tasks asynchronously on the specified executor.
+     *
+     * @param executor The executor to execute tasks on
+     *
+     * @return This for fluent interface
+     */
+    public SubscriptionManagerBuilder<HandleT> withExecutor(TopicExecutor executor) {
+        return new SubscriptionManagerBuilder<>(handleFactory,
+                                                Objects.requireNonNull(executor),
+                                                subscriberLanes,
+                                                laneCapacity,
+                                                overflowPolicy,
+                                                metrics);
+    }
+
+    /**
+     * Defines whether each subscriber is delivered to in a lane of its own rather than in the lane
+     * of the topic. With subscriber lanes, a slow subscriber only delays its own deliveries while
+     * the other subscribers of the same topic proceed. Events pending for a subscriber are
+     * conflated if they are published with a conflation key. Events published without a key
+     * accumulate for a lagging subscriber though, so unless the lanes are limited through {@link
+     * #withSubscriberLaneCapacity(int, OverflowPolicy)}, the memory held for a lagging subscriber
+     * is unbounded. This has no effect on subscription managers executing tasks synchronously.
+     *
+     * @param subscriberLanes True if each subscriber should get a delivery lane of its own
+     *
+     * @return This for fluent interface
+     *
+     * @see SubscriptionManager#forTopic(Object, Object, SubscriptionManager.SubscriptionAction)
+     */
+    public SubscriptionManagerBuilder<HandleT> withSubscriberLanes(boolean subscriberLanes) {
+        return new SubscriptionManagerBuilder<>(handleFactory,
+                                                executor,
+                                                subscriberLanes,
+                                                laneCapacity,
+                                                overflowPolicy,
+                                                metrics);
+    }
+
+    /**
+     * Limits the number of events that may be pending in the lane of each subscriber, where a batch
+     * of events counts as one. Events delivered to a full lane are treated according to the
+     * specified policy; events replacing a pending event of the same conflation key are always
+     * accepted. This has no effect without subscriber lanes.
+     *
+     * @param capacity       The maximum number of pending events per subscriber
+     * @param overflowPolicy The policy to apply to events delivered to a full lane
+     *
+     * @return This for fluent interface
+     *
+     * @see #withSubscriberLanes(boolean)
+     */
+    public SubscriptionManagerBuilder<HandleT> withSubscriberLaneCapacity(
+            int capacity, OverflowPolicy overflowPolicy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException(
+                    String.format("Lane capacity must be positive but was %d", capacity));
+        }
+        return new SubscriptionManagerBuilder<>(handleFactory,
+                                                executor,
+                                                subscriberLanes,
+                                                capacity,
+                                                Objects.requireNonNull(overflowPolicy),
+                                                metrics);
+    }
+
+    /**
+     * Reports the number of published events and deliveries per topic as well as the duration of
+     * each listener callback to the specified metrics.
+     *
+     * @param metrics The metrics to report to
+     *
+     * @return This for fluent interface
+     */
+    public SubscriptionManagerBuilder<HandleT> withMetrics(TopicMetrics metrics) {
+        return new SubscriptionManagerBuilder<>(handleFactory,
+                                                executor,
+                                                subscriberLanes,
+                                                laneCapacity,
+                                                overflowPolicy,
+                                                Objects.requireNonNull(metrics));
+    }
+}
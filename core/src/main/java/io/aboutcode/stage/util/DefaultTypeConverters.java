@@ -1,6 +1,6 @@
 package io.aboutcode.stage.util;
 
-import io.aboutcode.stage.dispatch.Dispatcher;
+import io.aboutcode.stage.dispatch.ClassDispatcher;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -38,9 +38,9 @@ import java.util.Optional;
  * <p><em>Note</em> that <code>Object</code> types will simply use the input string as-is.</p>
  */
 public final class DefaultTypeConverters {
-    private static final Dispatcher<Class, InputConverter<?>> CLASS_TO_CONVERTER =
-            Dispatcher
-                    .<Class, InputConverter<?>>of(Integer.class, nullable(Integer::parseInt))
+    private static final ClassDispatcher<InputConverter<?>> CLASS_TO_CONVERTER =
+            ClassDispatcher
+                    .<InputConverter<?>>of(Integer.class, nullable(Integer::parseInt))
                     .with(int.class, Integer::parseInt)
                     .with(Long.class, nullable(Long::parseLong))
                     .with(long.class, Long::parseLong)
@@ -67,10 +67,12 @@ public final class DefaultTypeConverters {
     }
 
     public static <OutputT> Optional<InputConverter<OutputT>> getConverter(Class<OutputT> type) {
-        //noinspection unchecked
-        return CLASS_TO_CONVERTER.dispatch(type)
-                                 .map(converter -> Optional.of((InputConverter<OutputT>) converter))
-                                 .orElseGet(() -> enumConverter(type));
+        InputConverter<?> converter = CLASS_TO_CONVERTER.dispatchOrNull(type);
+        if (converter != null) {
+            //noinspection unchecked
+            return Optional.of((InputConverter<OutputT>) converter);
+        }
+        return enumConverter(type);
     }
 
     private static <OutputT> Optional<InputConverter<OutputT>> enumConverter(Class<OutputT> type) {
@@ -1,6 +1,6 @@
 package io.aboutcode.stage.util;
 
-import io.aboutcode.stage.dispatch.Dispatcher;
+import io.aboutcode.stage.dispatch.ClassDispatcher;
 
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
@@ -9,8 +9,8 @@ import java.util.*;
 import java.util.function.Supplier;
 
 public final class FieldAnalysis {
-    private static final Dispatcher<Class, Supplier<Collection>> COLLECTION_CREATOR =
-            Dispatcher.<Class, Supplier<Collection>>of(Set.class, HashSet::new)
+    private static final ClassDispatcher<Supplier<Collection>> COLLECTION_CREATOR =
+            ClassDispatcher.<Supplier<Collection>>of(Set.class, HashSet::new)
                     .with(List.class, ArrayList::new)
                     .with(Collection.class, ArrayList::new);
     private final FieldType fieldType;
@@ -33,7 +33,6 @@ public final class FieldAnalysis {
 
     public static FieldAnalysis of(Field field,
                                    Object targetObject) {
-        Class<?> type = field.getType();
         Object defaultValue;
         try {
             field.setAccessible(true);
@@ -46,6 +45,15 @@ public final class FieldAnalysis {
             );
         }
 
+        return analyse(field, defaultValue, targetObject);
+    }
+
+    public static FieldAnalysis of(Field field) {
+        return analyse(field, null, null);
+    }
+
+    private static FieldAnalysis analyse(Field field, Object defaultValue, Object targetObject) {
+        Class<?> type = field.getType();
         if (Collection.class.isAssignableFrom(type)) {
             Class specificClass = (Class) ((ParameterizedType) field.getGenericType())
                     .getActualTypeArguments()[0];
@@ -76,6 +84,10 @@ public final class FieldAnalysis {
     }
 
     public void assign(Object value) throws IllegalAccessException {
+        setValue(convert(value));
+    }
+
+    public Object convert(Object value) {
         Object finalValue;
         switch (getFieldType()) {
             case ARRAY:
@@ -90,8 +102,7 @@ public final class FieldAnalysis {
             default:
                 finalValue = null;
         }
-
-        setValue(finalValue);
+        return finalValue;
     }
 
     private void setValue(Object value) throws IllegalAccessException {
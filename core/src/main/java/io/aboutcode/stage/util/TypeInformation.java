@@ -1,6 +1,6 @@
 package io.aboutcode.stage.util;
 
-import io.aboutcode.stage.dispatch.Dispatcher;
+import io.aboutcode.stage.dispatch.ClassDispatcher;
 import java.lang.reflect.Array;
 import java.lang.reflect.Parameter;
 import java.lang.reflect.ParameterizedType;
@@ -14,8 +14,8 @@ import java.util.Set;
 import java.util.function.Supplier;
 
 public final class TypeInformation {
-    private static final Dispatcher<Class, Supplier<Collection>> COLLECTION_CREATOR =
-            Dispatcher.<Class, Supplier<Collection>>of(Set.class, HashSet::new)
+    private static final ClassDispatcher<Supplier<Collection>> COLLECTION_CREATOR =
+            ClassDispatcher.<Supplier<Collection>>of(Set.class, HashSet::new)
                     .with(List.class, ArrayList::new)
                     .with(Collection.class, ArrayList::new);
     private final Class<?> type;
@@ -10,9 +10,14 @@ import static org.junit.Assert.fail;
 import io.aboutcode.stage.dependency.DependencyAware;
 import io.aboutcode.stage.dependency.DependencyContext;
 import io.aboutcode.stage.dependency.DependencyException;
+import io.aboutcode.stage.lifecycle.LifeCyclePhase;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import org.junit.After;
@@ -92,6 +97,167 @@ public class ComponentContainerTest {
         assertNull(resolvedComponent.get());
     }
 
+    @Test
+    public void testParallelStartOrder() {
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        Consumer<String> startFunction = order::add;
+        container.setParallelism(4);
+        container.addComponent("A", new ResolvingComponent("A", startFunction, "B"));
+        container.addComponent("B", new ResolvingComponent("B", startFunction, "C"));
+        container.addComponent("C", new ResolvingComponent("C", startFunction, "D"));
+        container.addComponent("D", new ResolvingComponent("D", startFunction));
+        container.addComponent("E", new ResolvingComponent("E", startFunction, "D"));
+        container.addComponent("F", new ResolvingComponent("F", startFunction, "A", "E"));
+        container.start();
+        assertTrue(container.isRunning());
+        container.stop();
+
+        assertEquals(6, order.size());
+        assertEquals("D", order.get(0));
+        assertEquals(new HashSet<>(Arrays.asList("C", "E")), new HashSet<>(order.subList(1, 3)));
+        assertEquals(Arrays.asList("B", "A", "F"), order.subList(3, 6));
+    }
+
+    @Test
+    public void testParallelStartConcurrency() {
+        CountDownLatch latch = new CountDownLatch(3);
+        Consumer<String> startFunction = name -> {
+            latch.countDown();
+            try {
+                // only succeeds if all components of the level are started concurrently
+                if (!latch.await(5, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("Components not started concurrently");
+                }
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        container.setParallelism(3);
+        container.addComponent("A", new ResolvingComponent("A", startFunction));
+        container.addComponent("B", new ResolvingComponent("B", startFunction));
+        container.addComponent("C", new ResolvingComponent("C", startFunction));
+        container.start();
+        assertTrue(container.isRunning());
+        container.stop();
+    }
+
+    @Test
+    public void testParallelFailingStart() throws Exception {
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        Component failingComponent = Mockito.mock(Component.class);
+        Mockito.doThrow(NullPointerException.class).when(failingComponent).start();
+        container.setParallelism(2);
+        container.addComponent("A", new ResolvingComponent("A", order::add, "Failing"));
+        container.addComponent("Failing", failingComponent);
+        container.start();
+        assertFalse(container.isRunning());
+
+        assertTrue(order.isEmpty());
+        Mockito.verify(failingComponent, Mockito.times(1)).stop();
+        Mockito.verify(failingComponent, Mockito.times(1)).destroy();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testParallelismAfterStart() {
+        container.addComponent("A", new EmptyComponent());
+        container.start();
+        try {
+            container.setParallelism(2);
+        } finally {
+            container.stop();
+        }
+    }
+
+    @Test
+    public void testStopOrder() {
+        List<String> order = new ArrayList<>();
+        Consumer<String> stopFunction = order::add;
+        container.addComponent("A", new StoppingComponent("A", stopFunction, "B"));
+        container.addComponent("B", new StoppingComponent("B", stopFunction, "C"));
+        container.addComponent("C", new StoppingComponent("C", stopFunction, "D"));
+        container.addComponent("D", new StoppingComponent("D", stopFunction));
+        container.addComponent("E", new StoppingComponent("E", stopFunction, "D"));
+        container.addComponent("F", new StoppingComponent("F", stopFunction, "A", "E"));
+        container.start();
+        container.stop();
+
+        assertOrder(order, "F", "E", "A", "B", "C", "D");
+    }
+
+    @Test
+    public void testParallelStopOrder() {
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        Consumer<String> stopFunction = order::add;
+        container.setParallelism(4);
+        container.addComponent("A", new StoppingComponent("A", stopFunction, "B"));
+        container.addComponent("B", new StoppingComponent("B", stopFunction, "C"));
+        container.addComponent("C", new StoppingComponent("C", stopFunction, "D"));
+        container.addComponent("D", new StoppingComponent("D", stopFunction));
+        container.addComponent("E", new StoppingComponent("E", stopFunction, "D"));
+        container.addComponent("F", new StoppingComponent("F", stopFunction, "A", "E"));
+        container.start();
+        container.stop();
+
+        assertEquals(Arrays.asList("F", "A", "B"), order.subList(0, 3));
+        assertEquals(new HashSet<>(Arrays.asList("C", "E")), new HashSet<>(order.subList(3, 5)));
+        assertEquals("D", order.get(5));
+    }
+
+    @Test
+    public void testShutdownTimeout() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Component hangingComponent = new StoppingComponent("A", name -> {
+            while (release.getCount() > 0) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    // ignore the interruption to simulate a component that does not stop
+                }
+            }
+        });
+        Component dependency = Mockito.mock(Component.class);
+        container.setShutdownTimeout(100, TimeUnit.MILLISECONDS);
+        container.addComponent("A", hangingComponent);
+        container.addComponent("B", dependency);
+        try {
+            container.start();
+            long start = System.nanoTime();
+            container.stop();
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+
+            Mockito.verify(dependency, Mockito.times(1)).stop();
+            Mockito.verify(dependency, Mockito.times(1)).destroy();
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testProfile() {
+        Consumer<String> startFunction = name -> {
+            try {
+                Thread.sleep("B".equals(name) ? 50 : 1);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        container.addComponent("A", new ResolvingComponent("A", startFunction, "B", "C"));
+        container.addComponent("B", new ResolvingComponent("B", startFunction, "D"));
+        container.addComponent("C", new ResolvingComponent("C", startFunction, "D"));
+        container.addComponent("D", new ResolvingComponent("D", startFunction));
+        container.start();
+        LifeCycleProfile profile = container.getProfile();
+        container.stop();
+
+        assertEquals(Arrays.asList("D", "B", "C", "A"), profile.getComponents());
+        assertEquals(new HashSet<>(Arrays.asList("B", "C")), profile.getDependencies("A"));
+        assertTrue(profile.getDurationNanos("B", LifeCyclePhase.Start)
+                   >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(0, profile.getDurationNanos("B", LifeCyclePhase.Stop));
+        assertEquals(Arrays.asList("D", "B", "A"), profile.getCriticalPath());
+        assertTrue(container.getProfile().getDurationNanos(LifeCyclePhase.Destroy) > 0);
+    }
+
     private void assertOrder(List<String> result, String... expected) {
         Assert.assertArrayEquals(expected, result.toArray(new String[0]));
     }
@@ -175,6 +341,57 @@ public class ComponentContainerTest {
         }));
     }
 
+    @Test
+    public void testLazyComponentUnused() {
+        List<String> events = new ArrayList<>();
+        container.addComponent("Lazy", new LazyGreeter(events));
+        container.addComponent("Dependant", new GreetingComponent(events, Greeter.class, false));
+        container.start();
+        container.stop();
+
+        assertEquals(Collections.emptyList(), events);
+    }
+
+    @Test
+    public void testLazyComponentActivation() {
+        List<String> events = new ArrayList<>();
+        container.addComponent("Lazy", new LazyGreeter(events));
+        container.addComponent("Dependant", new GreetingComponent(events, Greeter.class, true));
+        container.start();
+        container.stop();
+
+        assertEquals(Arrays.asList("init", "start", "greet", "stop", "destroy"), events);
+    }
+
+    @Test
+    public void testLazyComponentRetrievedByClass() {
+        List<String> events = new ArrayList<>();
+        container.addComponent("Lazy", new LazyGreeter(events));
+        container.addComponent("Dependant",
+                               new GreetingComponent(events, LazyGreeter.class, false));
+        container.start();
+        container.stop();
+
+        assertEquals(Arrays.asList("init", "start", "stop", "destroy"), events);
+    }
+
+    @Test
+    public void testLazyComponentAfterStop() {
+        List<String> events = new ArrayList<>();
+        GreetingComponent dependant = new GreetingComponent(events, Greeter.class, false);
+        container.addComponent("Lazy", new LazyGreeter(events));
+        container.addComponent("Dependant", dependant);
+        container.start();
+        container.stop();
+
+        try {
+            dependant.greeter.greet();
+            fail("Lazy component must not be activated after the container stopped");
+        } catch (IllegalStateException e) {
+            assertEquals(Collections.emptyList(), events);
+        }
+    }
+
     private static class ResolvingComponent extends BaseComponent {
         private String name;
         private Consumer<String> startFunction;
@@ -200,7 +417,89 @@ public class ComponentContainerTest {
         }
     }
 
+    private static class StoppingComponent extends ResolvingComponent {
+        private String name;
+        private Consumer<String> stopFunction;
+
+        StoppingComponent(String name, Consumer<String> stopFunction,
+                          String... componentsToResolve) {
+            super(name, ignored -> {
+            }, componentsToResolve);
+            this.name = name;
+            this.stopFunction = stopFunction;
+        }
+
+        @Override
+        public void stop() {
+            stopFunction.accept(name);
+        }
+    }
+
     private static class EmptyComponent extends BaseComponent {
 
     }
+
+    private interface Greeter {
+        void greet();
+    }
+
+    @Lazy
+    private static class LazyGreeter extends BaseComponent implements Greeter {
+        private final List<String> events;
+
+        LazyGreeter(List<String> events) {
+            this.events = events;
+        }
+
+        @Override
+        protected void init() {
+            events.add("init");
+        }
+
+        @Override
+        public void start() {
+            events.add("start");
+        }
+
+        @Override
+        public void greet() {
+            events.add("greet");
+        }
+
+        @Override
+        public void stop() {
+            events.add("stop");
+        }
+
+        @Override
+        public void destroy() {
+            events.add("destroy");
+        }
+    }
+
+    private static class GreetingComponent extends BaseComponent {
+        private final List<String> events;
+        private final Class<? extends Greeter> type;
+        private final boolean greetOnStart;
+        private Greeter greeter;
+
+        GreetingComponent(List<String> events, Class<? extends Greeter> type,
+                          boolean greetOnStart) {
+            this.events = events;
+            this.type = type;
+            this.greetOnStart = greetOnStart;
+        }
+
+        @Override
+        public void resolve(DependencyContext context) throws DependencyException {
+            greeter = context.retrieveDependency(type, true);
+        }
+
+        @Override
+        public void start() {
+            if (greetOnStart) {
+                greeter.greet();
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -7,7 +7,9 @@ import io.aboutcode.stage.dependency.DependencyContext;
 import io.aboutcode.stage.dependency.DependencyException;
 import io.aboutcode.stage.dependency.Resolved;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import org.junit.Test;
@@ -158,6 +160,47 @@ public class DependencyTreeBuilderTest {
         testWith(allComponents, "C", "B", "A", "D", "E");
     }
 
+    @Test
+    public void testSupertypeResolving() throws Exception {
+        Map<Object, DependencyAware> allComponents = new HashMap<>();
+        MarkedComponent marked = new MarkedComponent();
+        allComponents.put("A", new DummyComponent() {
+            @Override
+            public void resolve(DependencyContext context) throws DependencyException {
+                assertEquals(marked, context.retrieveDependency(TestMarker.class));
+                assertEquals(2, context.retrieveDependencies(ResolvingComponent.class).size());
+            }
+        });
+        allComponents.put("B", marked);
+        allComponents.put("C", new DummyComponent2("D"));
+        allComponents.put("D", new ResolvingComponent());
+        testWith(allComponents, "B", "D", "C", "A");
+    }
+
+    @Test
+    public void testLevels() throws Exception {
+        Map<Object, DependencyAware> allComponents = new HashMap<>();
+        allComponents.put("A", new ResolvingComponent("B"));
+        allComponents.put("B", new ResolvingComponent("C", "D"));
+        allComponents.put("C", new ResolvingComponent("E", "F"));
+        allComponents.put("D", new ResolvingComponent("E"));
+        allComponents.put("E", new ResolvingComponent("F"));
+        allComponents.put("F", new ResolvingComponent());
+        allComponents.put("G", new ResolvingComponent("E"));
+        allComponents.put("H", new DummyComponent());
+        DependencyTree tree = DependencyTreeBuilder.buildDependencyTree(allComponents,
+                                                                        type -> type);
+        assertEquals(Arrays.asList("F", "E", "C", "D", "B", "A", "G", "H"), tree.getOrder());
+        assertEquals(Arrays.asList(Arrays.asList("F", "H"),
+                                   Arrays.asList("E"),
+                                   Arrays.asList("C", "D", "G"),
+                                   Arrays.asList("B"),
+                                   Arrays.asList("A")),
+                     tree.getLevels());
+        assertEquals(new HashSet<>(Arrays.asList("E", "F")), tree.getDependencies("C"));
+        assertEquals(Collections.emptySet(), tree.getDependencies("H"));
+    }
+
     private void testWith(Map<Object, DependencyAware> components, Object... expectedOrder)
             throws DependencyException {
         List<Object> actualOrder = DependencyTreeBuilder.buildTree(components, type -> type);
@@ -0,0 +1,79 @@
+package io.aboutcode.stage.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import io.aboutcode.stage.lifecycle.LifeCyclePhase;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Test;
+
+public class LifeCycleProfileTest {
+    @Test
+    public void testDurations() {
+        LifeCycleProfile profile = profile(Arrays.asList("A", "B"),
+                                           new long[]{1, 2, 3, 4, 5},
+                                           new long[]{10, 20, 30, 40, 50});
+
+        assertEquals(3, profile.getDurationNanos("A", LifeCyclePhase.Start));
+        assertEquals(50, profile.getDurationNanos("B", LifeCyclePhase.Destroy));
+        assertEquals(0, profile.getDurationNanos("C", LifeCyclePhase.Init));
+        assertEquals(22, profile.getDurationNanos(LifeCyclePhase.Resolve));
+    }
+
+    @Test
+    public void testCriticalPath() {
+        Map<Object, long[]> durations = new HashMap<>();
+        durations.put("A", starting(5));
+        durations.put("B", starting(30));
+        durations.put("C", starting(20));
+        durations.put("D", starting(10));
+        durations.put("E", starting(25));
+        Map<Object, Set<Object>> dependencies = new HashMap<>();
+        dependencies.put("B", Collections.singleton("A"));
+        dependencies.put("C", Collections.singleton("A"));
+        dependencies.put("D", new HashSet<>(Arrays.asList("B", "C")));
+        LifeCycleProfile profile = new LifeCycleProfile(Arrays.asList("A", "B", "C", "D", "E"),
+                                                        durations, dependencies);
+
+        assertEquals(Arrays.asList("A", "B", "D"), profile.getCriticalPath());
+        assertEquals(45, profile.getCriticalPathNanos());
+    }
+
+    @Test
+    public void testEmpty() {
+        LifeCycleProfile profile = new LifeCycleProfile(Collections.emptyList(),
+                                                        Collections.emptyMap(),
+                                                        Collections.emptyMap());
+
+        assertTrue(profile.getCriticalPath().isEmpty());
+        assertEquals(0, profile.getCriticalPathNanos());
+    }
+
+    @Test
+    public void testReport() {
+        LifeCycleProfile profile = profile(Collections.singletonList("Component"),
+                                           new long[]{1000000, 0, 2500000, 0, 0});
+
+        String report = profile.toString();
+        assertTrue(report.contains("Start"));
+        assertTrue(report.contains("Critical path"));
+    }
+
+    private static LifeCycleProfile profile(List<Object> components, long[]... durations) {
+        Map<Object, long[]> durationsByComponent = new HashMap<>();
+        for (int i = 0; i < components.size(); i++) {
+            durationsByComponent.put(components.get(i), durations[i]);
+        }
+        return new LifeCycleProfile(components, durationsByComponent, Collections.emptyMap());
+    }
+
+    private static long[] starting(long startNanos) {
+        return new long[]{0, 0, startNanos, 0, 0};
+    }
+}
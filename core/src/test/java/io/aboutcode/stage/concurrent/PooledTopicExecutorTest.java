@@ -1,7 +1,16 @@
 package io.aboutcode.stage.concurrent;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
+import io.aboutcode.stage.metrics.InMemoryTopicMetrics;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import org.junit.Test;
 
 public class PooledTopicExecutorTest {
@@ -38,6 +47,269 @@ public class PooledTopicExecutorTest {
         assertEquals("54321", topicTwoResult.toString());
     }
 
+    @Test
+    public void testConcurrentSubmission() throws Exception {
+        int producers = 4;
+        int tasks = 10000;
+        PooledTopicExecutor threadPool = new PooledTopicExecutor();
+        CountDownLatch finished = new CountDownLatch(producers);
+        List<List<Integer>> results = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int producer = 0; producer < producers; producer++) {
+            Object topic = new Object();
+            List<Integer> result = new ArrayList<>();
+            results.add(result);
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < tasks; i++) {
+                    int value = i;
+                    threadPool.execute(topic, () -> result.add(value));
+                }
+                threadPool.execute(topic, finished::countDown);
+            }));
+        }
+        threads.forEach(Thread::start);
+
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        for (List<Integer> result : results) {
+            assertEquals(tasks, result.size());
+            for (int i = 0; i < tasks; i++) {
+                assertEquals(i, (int) result.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testDedicatedExecutor() throws Exception {
+        LinkedList<Runnable> scheduled = new LinkedList<>();
+        StringBuilder result = new StringBuilder();
+        PooledTopicExecutor threadPool = PooledTopicExecutorBuilder.create()
+                                                                   .withExecutor(scheduled::add)
+                                                                   .build();
+        threadPool.execute(result, () -> result.append("1"));
+        threadPool.execute(result, () -> result.append("2"));
+
+        assertEquals(1, scheduled.size());
+        assertEquals("", result.toString());
+        runAll(scheduled);
+        assertEquals("12", result.toString());
+    }
+
+    @Test
+    public void testDropNewest() throws Exception {
+        assertEquals("12", runBounded(OverflowPolicy.DROP_NEWEST));
+    }
+
+    @Test
+    public void testDropOldest() throws Exception {
+        assertEquals("23", runBounded(OverflowPolicy.DROP_OLDEST));
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void testFail() throws Exception {
+        runBounded(OverflowPolicy.FAIL);
+    }
+
+    @Test
+    public void testBlock() throws Exception {
+        StringBuilder result = new StringBuilder();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        PooledTopicExecutor threadPool = PooledTopicExecutorBuilder
+                .create()
+                .withQueueCapacity(1, OverflowPolicy.BLOCK)
+                .build();
+        threadPool.execute(result, () -> await(release));
+        threadPool.execute(result, () -> result.append("1"));
+        Thread producer = new Thread(() -> {
+            threadPool.execute(result, () -> result.append("2"));
+            threadPool.execute(result, finished::countDown);
+        });
+        producer.start();
+
+        assertFalse(finished.await(200, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        assertEquals("12", result.toString());
+    }
+
+    @Test
+    public void testBatchSize() throws Exception {
+        LinkedList<Runnable> scheduled = new LinkedList<>();
+        StringBuilder result = new StringBuilder();
+        PooledTopicExecutor threadPool = PooledTopicExecutorBuilder.create()
+                                                                   .withExecutor(scheduled::add)
+                                                                   .withBatchSize(3)
+                                                                   .build();
+        for (int i = 1; i <= 5; i++) {
+            String value = String.valueOf(i);
+            threadPool.execute(result, () -> result.append(value));
+        }
+
+        scheduled.poll().run();
+        assertEquals("123", result.toString());
+        assertEquals(1, scheduled.size());
+        scheduled.poll().run();
+        assertEquals("12345", result.toString());
+        assertTrue(scheduled.isEmpty());
+    }
+
+    @Test
+    public void testBatchDuration() throws Exception {
+        LinkedList<Runnable> scheduled = new LinkedList<>();
+        StringBuilder result = new StringBuilder();
+        PooledTopicExecutor threadPool = PooledTopicExecutorBuilder
+                .create()
+                .withExecutor(scheduled::add)
+                .withBatchSize(100)
+                .withBatchDuration(1, TimeUnit.MILLISECONDS)
+                .build();
+        threadPool.execute(result, () -> incrementAndSleep(result, "1"));
+        threadPool.execute(result, () -> incrementAndSleep(result, "2"));
+
+        scheduled.poll().run();
+        assertEquals("1", result.toString());
+        runAll(scheduled);
+        assertEquals("12", result.toString());
+    }
+
+    @Test
+    public void testIdleTopicEviction() throws Exception {
+        LinkedList<Runnable> scheduled = new LinkedList<>();
+        StringBuilder result = new StringBuilder();
+        PooledTopicExecutor threadPool = PooledTopicExecutorBuilder.create()
+                                                                   .withExecutor(scheduled::add)
+                                                                   .build();
+        threadPool.execute("One", () -> result.append("1"));
+        threadPool.execute("Two", () -> result.append("2"));
+        assertEquals(2, threadPool.getTopicCount());
+
+        runAll(scheduled);
+        assertEquals(0, threadPool.getTopicCount());
+
+        threadPool.execute("One", () -> result.append("3"));
+        assertEquals(1, threadPool.getTopicCount());
+        runAll(scheduled);
+        assertEquals("123", result.toString());
+        assertEquals(0, threadPool.getTopicCount());
+    }
+
+    @Test
+    public void testIdleTopicRetention() throws Exception {
+        LinkedList<Runnable> scheduled = new LinkedList<>();
+        PooledTopicExecutor threadPool = PooledTopicExecutorBuilder.create()
+                                                                   .withExecutor(scheduled::add)
+                                                                   .withIdleTopicEviction(false)
+                                                                   .build();
+        threadPool.execute("One", () -> {});
+        runAll(scheduled);
+        assertEquals(1, threadPool.getTopicCount());
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        LinkedList<Runnable> scheduled = new LinkedList<>();
+        InMemoryTopicMetrics metrics = new InMemoryTopicMetrics();
+        PooledTopicExecutor threadPool = PooledTopicExecutorBuilder.create()
+                                                                   .withExecutor(scheduled::add)
+                                                                   .withMetrics(metrics)
+                                                                   .build();
+        threadPool.execute("One", () -> {});
+        threadPool.execute("One", () -> {
+            throw new IllegalStateException("Failure");
+        });
+        threadPool.execute("One", () -> {});
+        InMemoryTopicMetrics.TopicStatistics statistics = metrics.getStatistics("One");
+        assertEquals(3, statistics.getQueueDepth());
+
+        runAll(scheduled);
+        assertEquals(0, statistics.getQueueDepth());
+        assertEquals(3, statistics.getMaxQueueDepth());
+        assertEquals(3, statistics.getExecutions());
+        assertEquals(1, statistics.getFailures());
+    }
+
+    @Test
+    public void testSubtopicMetrics() throws Exception {
+        LinkedList<Runnable> scheduled = new LinkedList<>();
+        InMemoryTopicMetrics metrics = new InMemoryTopicMetrics();
+        PooledTopicExecutor threadPool = PooledTopicExecutorBuilder.create()
+                                                                   .withExecutor(scheduled::add)
+                                                                   .withMetrics(metrics)
+                                                                   .build();
+        TopicExecutor.Subtopic first = () -> "One";
+        TopicExecutor.Subtopic second = () -> "One";
+        threadPool.execute(first, () -> {});
+        threadPool.execute(second, () -> {});
+        runAll(scheduled);
+
+        assertEquals(1, metrics.getTopics().size());
+        InMemoryTopicMetrics.TopicStatistics statistics = metrics.getStatistics("One");
+        assertEquals(2, statistics.getExecutions());
+        assertEquals(0, statistics.getMaxQueueDepth());
+    }
+
+    @Test
+    public void testConcurrentSubmissionToSharedTopic() throws Exception {
+        int producers = 4;
+        int tasks = 10000;
+        PooledTopicExecutor threadPool = new PooledTopicExecutor();
+        Object topic = new Object();
+        CountDownLatch finished = new CountDownLatch(producers);
+        List<List<Integer>> results = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int producer = 0; producer < producers; producer++) {
+            List<Integer> result = new ArrayList<>();
+            results.add(result);
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < tasks; i++) {
+                    int value = i;
+                    threadPool.execute(topic, () -> result.add(value));
+                    if (i % 100 == 0) {
+                        Thread.yield();
+                    }
+                }
+                threadPool.execute(topic, finished::countDown);
+            }));
+        }
+        threads.forEach(Thread::start);
+
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        for (List<Integer> result : results) {
+            assertEquals(tasks, result.size());
+            for (int i = 0; i < tasks; i++) {
+                assertEquals(i, (int) result.get(i));
+            }
+        }
+    }
+
+    private String runBounded(OverflowPolicy policy) {
+        LinkedList<Runnable> scheduled = new LinkedList<>();
+        StringBuilder result = new StringBuilder();
+        PooledTopicExecutor threadPool = PooledTopicExecutorBuilder.create()
+                                                                   .withExecutor(scheduled::add)
+                                                                   .withQueueCapacity(2, policy)
+                                                                   .build();
+        threadPool.execute(result, () -> result.append("1"));
+        threadPool.execute(result, () -> result.append("2"));
+        threadPool.execute(result, () -> result.append("3"));
+        runAll(scheduled);
+        return result.toString();
+    }
+
+    private void runAll(LinkedList<Runnable> scheduled) {
+        while (!scheduled.isEmpty()) {
+            scheduled.poll().run();
+        }
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private void incrementAndSleep(StringBuilder target, String value) {
         target.append(value);
         try {
@@ -1,7 +1,10 @@
 package io.aboutcode.stage.concurrent;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -30,4 +33,61 @@ public class SignalConditionTest {
         signalCondition.signal();
         assertTrue(signalCondition.await(20, TimeUnit.MILLISECONDS));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void timeout() throws Exception {
+        long start = System.nanoTime();
+        assertFalse(signalCondition.await(20, TimeUnit.MILLISECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(signalCondition.awaitNanos(TimeUnit.MILLISECONDS.toNanos(1)) <= 0);
+        assertFalse(signalCondition.isSignalled());
+    }
+
+    @Test
+    public void remainingNanos() throws Exception {
+        long timeout = TimeUnit.SECONDS.toNanos(5);
+        executorService.schedule(() -> signalCondition.signal(), 100, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        long remaining = signalCondition.awaitNanos(timeout);
+        long waited = System.nanoTime() - start;
+        assertTrue(remaining >= timeout - waited);
+        // leaves room for the test thread being delayed between scheduling and waiting
+        assertTrue(remaining <= timeout - TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    public void deadline() throws Exception {
+        assertFalse(signalCondition.awaitUntil(new Date(System.currentTimeMillis() - 1000)));
+        assertFalse(signalCondition.awaitUntil(new Date(System.currentTimeMillis() + 20)));
+
+        executorService.schedule(() -> signalCondition.signal(), 20, TimeUnit.MILLISECONDS);
+        assertTrue(signalCondition.awaitUntil(new Date(System.currentTimeMillis() + 5000)));
+    }
+
+    @Test
+    public void multipleWaiters() throws Exception {
+        int waiters = 8;
+        CountDownLatch finished = new CountDownLatch(waiters);
+        for (int i = 0; i < waiters; i++) {
+            new Thread(() -> {
+                signalCondition.awaitUninterruptibly();
+                finished.countDown();
+            }).start();
+        }
+        // waiting repeatedly with a timeout must neither block nor disturb other waiters
+        for (int i = 0; i < 100; i++) {
+            assertFalse(signalCondition.await(10, TimeUnit.MICROSECONDS));
+        }
+
+        signalCondition.signal();
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test(expected = InterruptedException.class)
+    public void interruption() throws Exception {
+        Thread waiter = Thread.currentThread();
+        executorService.schedule(waiter::interrupt, 20, TimeUnit.MILLISECONDS);
+        signalCondition.await();
+    }
+}
@@ -0,0 +1,49 @@
+package io.aboutcode.stage.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+
+public class VirtualThreadTopicExecutorTest {
+    @Test
+    public void testSequentialProcessing() throws Exception {
+        assumeTrue(VirtualThreadTopicExecutor.isSupported());
+
+        StringBuilder result = new StringBuilder();
+        AtomicBoolean virtual = new AtomicBoolean(true);
+        CountDownLatch finished = new CountDownLatch(1);
+        VirtualThreadTopicExecutor executor = new VirtualThreadTopicExecutor();
+        for (int i = 1; i <= 5; i++) {
+            String value = String.valueOf(i);
+            executor.execute(result, () -> {
+                virtual.compareAndSet(true, isVirtual(Thread.currentThread()));
+                result.append(value);
+            });
+        }
+        executor.execute(result, finished::countDown);
+
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        assertEquals("12345", result.toString());
+        assertTrue(virtual.get());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testUnsupported() throws Exception {
+        assumeTrue(!VirtualThreadTopicExecutor.isSupported());
+
+        new VirtualThreadTopicExecutor();
+    }
+
+    private boolean isVirtual(Thread thread) {
+        try {
+            return (boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package io.aboutcode.stage.configuration;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.junit.Test;
@@ -134,6 +138,39 @@ public class ParameterParserTest {
         assertEquals("string", targetObject.stringField);
     }
 
+    @Test
+    public void test_multiple_values() {
+        DummyFour targetObject = new DummyFour();
+        List<ConfigurationParameter> configurationParameters = ParameterParser
+                .parseParameterClass(null, targetObject);
+
+        assertEquals(3, configurationParameters.size());
+        assertEquals("int", configurationParameters.get(0).getTypeName());
+
+        Map<String, List<String>> input = new HashMap<>();
+        input.put("array", l("1", "2"));
+        input.put("list", l("a", "b", "a"));
+
+        applyAll(configurationParameters, input);
+
+        assertArrayEquals(new int[]{1, 2}, targetObject.arrayField);
+        assertEquals(l("a", "b", "a"), targetObject.listField);
+        assertEquals(new HashSet<>(l("default")), targetObject.setField);
+    }
+
+    @Test
+    public void test_generated_binder() {
+        DummyFive targetObject = new DummyFive();
+        List<ConfigurationParameter> configurationParameters = ParameterParser
+                .parseParameterClass("test", targetObject);
+
+        assertEquals(1, configurationParameters.size());
+        ConfigurationParameter configurationParameter = configurationParameters.get(0);
+        assertEquals("test-generated", configurationParameter.getName());
+        configurationParameter.apply(true, l("TEST"));
+        assertEquals("generated TEST", targetObject.fieldOne);
+    }
+
     private static class DummyOne {
         @Parameter(name = "test", description = "A test field")
         private String fieldOne;
@@ -178,4 +215,30 @@ public class ParameterParserTest {
         @Parameter(name = "string", description = "A test field")
         private String stringField = "string";
     }
-}
\ No newline at end of file
+
+    private static class DummyFour {
+        @Parameter(name = "array", description = "A test field")
+        private int[] arrayField;
+        @Parameter(name = "list", description = "A test field")
+        private List<String> listField;
+        @Parameter(name = "set", description = "A test field", mandatory = false)
+        private Set<String> setField = Collections.singleton("default");
+    }
+
+    static class DummyFive {
+        @Parameter(name = "generated", description = "A test field")
+        String fieldOne;
+    }
+}
+
+class ParameterParserTest_DummyFive_ParameterBinder
+        implements ParameterBinder<ParameterParserTest.DummyFive> {
+    @Override
+    public List<ConfigurationParameter> bind(String parameterPrefix,
+                                             ParameterParserTest.DummyFive target) {
+        return Collections.singletonList(ParameterParser.singleValue(
+                parameterPrefix, "generated", "A test field", true, String.class,
+                target.fieldOne, input -> "generated " + input,
+                value -> target.fieldOne = (String) value));
+    }
+}
@@ -9,8 +9,11 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
@@ -105,6 +108,62 @@ public class AnnotatedDependencyParserTest {
         verifyNoMoreInteractions(context);
     }
 
+    @Test
+    public void testAssignment() throws Exception {
+        Test6 first = new Test6();
+        Test6 second = new Test6();
+        Test7 third = new Test7();
+        when(context.retrieveDependency(eq(String.class), eq(true))).thenReturn("value");
+        when(context.retrieveDependency(eq("test"), eq(long.class), eq(true))).thenReturn(42L);
+        when(context.retrieveDependencies(eq(String.class)))
+                .thenReturn(new HashSet<>(Arrays.asList("a", "b")));
+        for (Object target : Arrays.asList(first, second)) {
+            for (DependencyAware aware : AnnotatedDependencyParser
+                    .parseAnnotations((DependencyAware) target)) {
+                aware.resolve(context);
+            }
+        }
+        for (DependencyAware aware : AnnotatedDependencyParser.parseAnnotations(third)) {
+            aware.resolve(context);
+        }
+
+        assertEquals("value", first.single);
+        assertEquals(42L, first.other);
+        assertEquals("value", ((Test2) second).singleValue);
+        assertEquals(42L, second.other);
+        assertEquals("value", third.finalValue);
+        assertEquals(new HashSet<>(Arrays.asList("a", "b")),
+                     new HashSet<>(Arrays.asList(third.array)));
+        assertEquals(0, third.primitive);
+    }
+
+    @Test
+    public void testGeneratedInjector() throws Exception {
+        Test8 target = new Test8();
+        when(context.retrieveDependency(eq(String.class), eq(true))).thenReturn("value");
+        Collection<DependencyAware> dependencyAwares = AnnotatedDependencyParser
+                .parseAnnotations(target);
+
+        assertEquals(1, dependencyAwares.size());
+        for (DependencyAware aware : dependencyAwares) {
+            aware.resolve(context);
+        }
+        assertEquals("generated value", target.value);
+    }
+
+    @Test
+    public void testStaticField() throws Exception {
+        when(context.retrieveDependency(eq(String.class), eq(true))).thenReturn("value");
+        Collection<DependencyAware> dependencyAwares = AnnotatedDependencyParser
+                .parseAnnotations(new Test9());
+
+        assertEquals(1, dependencyAwares.size());
+        for (DependencyAware aware : dependencyAwares) {
+            aware.resolve(context);
+        }
+        assertEquals("value", Test9.value);
+    }
+
     private interface TestInterface {
 
     }
@@ -141,4 +200,32 @@ public class AnnotatedDependencyParserTest {
         @Resolved(mandatory = false)
         private Test5 special;
     }
-}
\ No newline at end of file
+
+    private static class Test7 implements DependencyAware {
+        @Resolved
+        private final String finalValue = null;
+        @Resolved
+        private String[] array;
+        @Resolved(mandatory = false)
+        private int primitive;
+    }
+
+    static class Test8 implements DependencyAware {
+        @Resolved
+        String value;
+    }
+
+    private static class Test9 implements DependencyAware {
+        @Resolved
+        private static String value;
+    }
+}
+
+class AnnotatedDependencyParserTest_Test8_ResolvedInjector
+        implements ResolvedInjector<AnnotatedDependencyParserTest.Test8> {
+    @Override
+    public void inject(AnnotatedDependencyParserTest.Test8 target, DependencyContext context)
+            throws DependencyException {
+        target.value = "generated " + context.retrieveDependency(String.class, true);
+    }
+}
@@ -0,0 +1,50 @@
+package io.aboutcode.stage.dispatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.RandomAccess;
+import org.junit.Test;
+
+public class ClassDispatcherTest {
+
+    @Test
+    public void empty() {
+        ClassDispatcher<String> dispatcher = ClassDispatcher.empty();
+        assertEquals(Optional.empty(), dispatcher.dispatch(String.class));
+        assertEquals(Optional.empty(), dispatcher.resolve(String.class));
+        assertNull(dispatcher.resolveOrNull(null));
+    }
+
+    @Test
+    public void exact() {
+        ClassDispatcher<String> dispatcher = ClassDispatcher.of(List.class, "list")
+                                                            .with(int.class, "int");
+        assertEquals(Optional.of("list"), dispatcher.dispatch(List.class));
+        assertEquals("int", dispatcher.dispatchOrNull(int.class));
+        assertNull(dispatcher.dispatchOrNull(ArrayList.class));
+        assertNull(dispatcher.dispatchOrNull(null));
+    }
+
+    @Test
+    public void supertypes() {
+        ClassDispatcher<String> dispatcher = ClassDispatcher.of(Collection.class, "collection")
+                                                            .with(RandomAccess.class, "random")
+                                                            .with(AbstractList.class, "abstract");
+        assertEquals("abstract", dispatcher.resolveOrNull(ArrayList.class));
+        assertEquals("random", dispatcher.resolveOrNull(TestList.class));
+        assertEquals("collection", dispatcher.resolveOrNull(List.class));
+        assertEquals(Optional.empty(), dispatcher.resolve(String.class));
+        // resolution is cached, so repeating it must yield the same results
+        assertEquals("abstract", dispatcher.resolveOrNull(ArrayList.class));
+        assertNull(dispatcher.resolveOrNull(String.class));
+    }
+
+    private interface TestList extends RandomAccess, List<Object> {
+    }
+}
@@ -1,6 +1,7 @@
 package io.aboutcode.stage.dispatch;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import java.util.Optional;
 import org.junit.Test;
@@ -29,4 +30,28 @@ public class DispatcherTest {
         assertEquals(Optional.empty(), dispatcher.dispatch(2L));
         assertEquals(Optional.empty(), dispatcher.dispatch(null));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void orNull() {
+        Dispatcher<Long, Long> dispatcher = Dispatcher.of(1L, 100L).with(2L, 200L);
+        assertEquals(Long.valueOf(100L), dispatcher.dispatchOrNull(1L));
+        assertEquals(Long.valueOf(200L), dispatcher.dispatchOrNull(2L));
+        assertNull(dispatcher.dispatchOrNull(3L));
+        assertNull(dispatcher.dispatchOrNull(null));
+    }
+
+    @Test
+    public void builder() {
+        DispatcherBuilder<Long, Long> builder = DispatcherBuilder.create();
+        for (long i = 0; i < 1000; i++) {
+            builder.with(i, i * 100);
+        }
+        Dispatcher<Long, Long> dispatcher = builder.build();
+        builder.with(1000L, 100000L);
+
+        assertEquals(Optional.of(99900L), dispatcher.dispatch(999L));
+        assertEquals(Optional.empty(), dispatcher.dispatch(1000L));
+        assertEquals(Optional.of(100000L), builder.build().dispatch(1000L));
+        assertEquals(Optional.of(100L), dispatcher.with(1001L, 1L).dispatch(1L));
+    }
+}
@@ -0,0 +1,42 @@
+package io.aboutcode.stage.dispatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Optional;
+import org.junit.Test;
+
+public class EnumDispatcherTest {
+
+    @Test
+    public void empty() {
+        EnumDispatcher<Key, Long> dispatcher = EnumDispatcher.empty(Key.class);
+        assertEquals(Optional.empty(), dispatcher.dispatch(Key.ONE));
+        assertEquals(Optional.empty(), dispatcher.dispatch(null));
+    }
+
+    @Test
+    public void valid() {
+        EnumDispatcher<Key, Long> dispatcher = EnumDispatcher.of(Key.ONE, 100L)
+                                                             .with(Key.THREE, 300L);
+        assertEquals(Optional.of(100L), dispatcher.dispatch(Key.ONE));
+        assertEquals(Optional.empty(), dispatcher.dispatch(Key.TWO));
+        assertEquals(Long.valueOf(300L), dispatcher.dispatchOrNull(Key.THREE));
+        assertNull(dispatcher.dispatchOrNull(Key.TWO));
+        assertNull(dispatcher.dispatchOrNull(null));
+    }
+
+    @Test
+    public void immutable() {
+        EnumDispatcher<Key, Long> dispatcher = EnumDispatcher.of(Key.ONE, 100L);
+        EnumDispatcher<Key, Long> extended = dispatcher.with(Key.ONE, 200L);
+        assertEquals(Long.valueOf(100L), dispatcher.dispatchOrNull(Key.ONE));
+        assertEquals(Long.valueOf(200L), extended.dispatchOrNull(Key.ONE));
+    }
+
+    private enum Key {
+        ONE,
+        TWO,
+        THREE
+    }
+}
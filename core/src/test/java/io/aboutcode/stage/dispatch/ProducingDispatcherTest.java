@@ -25,4 +25,15 @@ public class ProducingDispatcherTest {
         ProducingDispatcher<Long, Long> dispatcher = ProducingDispatcher.of(1L, null);
         assertEquals(Optional.empty(), dispatcher.dispatch(1L));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void builder() {
+        ProducingDispatcher<Long, Long> dispatcher = ProducingDispatcherBuilder
+                .<Long, Long>create()
+                .with(1L, () -> 100L)
+                .with(2L, () -> 200L)
+                .build();
+        assertEquals(Optional.of(100L), dispatcher.dispatch(1L));
+        assertEquals(Optional.of(200L), dispatcher.dispatch(2L));
+    }
+}
@@ -27,4 +27,18 @@ public class ResultlessDispatcherTest {
         ResultlessDispatcher<Long> dispatcher = ResultlessDispatcher.of(1L, null);
         dispatcher.dispatch(1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void builder() {
+        final AtomicLong result = new AtomicLong();
+        ResultlessDispatcher<Long> dispatcher = ResultlessDispatcherBuilder
+                .<Long>create()
+                .with(1L, () -> result.set(100L))
+                .with(2L, () -> result.set(200L))
+                .build();
+        dispatcher.dispatch(2L);
+        assertEquals(200L, result.get());
+        dispatcher.dispatch(1L);
+        assertEquals(100L, result.get());
+    }
+}
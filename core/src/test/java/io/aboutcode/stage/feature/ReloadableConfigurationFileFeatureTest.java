@@ -0,0 +1,225 @@
+package io.aboutcode.stage.feature;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import io.aboutcode.stage.application.ApplicationAssemblyContext;
+import io.aboutcode.stage.component.BaseComponent;
+import io.aboutcode.stage.component.Component;
+import io.aboutcode.stage.component.ComponentContainer;
+import io.aboutcode.stage.configuration.ConfigurationContext;
+import io.aboutcode.stage.configuration.ConfigurationParameter;
+import io.aboutcode.stage.configuration.ConfigurationReloadListener;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ReloadableConfigurationFileFeatureTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private File file;
+    private Map<String, List<Object>> appliedValues;
+    private BlockingQueue<Set<String>> notifications;
+    private List<String> uninterestedNotifications;
+    private ComponentContainer container;
+    private ConfigurationFileWatcher watcher;
+
+    @Before
+    public void setUp() throws Exception {
+        file = folder.newFile("application.properties");
+        write("port=1", "name=first", "mode=file");
+        appliedValues = new HashMap<>();
+        notifications = new LinkedBlockingQueue<>();
+        uninterestedNotifications = new ArrayList<>();
+
+        ReloadableConfigurationFileFeature feature = new ReloadableConfigurationFileFeature(false);
+        List<ConfigurationParameter> parameters = new ArrayList<>();
+        feature.configure(new ConfigurationContext() {
+            @Override
+            public void addConfigurationParameter(ConfigurationParameter configurationParameter) {
+                parameters.add(configurationParameter);
+            }
+
+            @Override
+            public <TypeT> TypeT addConfigurationObject(String parameterPrefix,
+                                                        TypeT configurationObject) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public <TypeT> TypeT addConfigurationObject(TypeT configurationObject) {
+                throw new UnsupportedOperationException();
+            }
+        });
+        parameters.add(ConfigurationParameter.Integer("port", "The port", true, null,
+                                                      value -> applied("port", value)));
+        parameters.add(ConfigurationParameter.String("name", "The name", false, "default",
+                                                     value -> applied("name", value)));
+        parameters.add(ConfigurationParameter.String("mode", "The mode", false, null,
+                                                     value -> applied("mode", value)));
+
+        Map<String, Supplier<List<String>>> arguments = new HashMap<>();
+        arguments.put("configuration-file", () -> Collections.singletonList(file.getPath()));
+        parameters.get(0).apply(true, arguments.get("configuration-file").get());
+        Map<String, Supplier<List<String>>> processedArguments = feature
+                .processApplicationArguments(arguments);
+        for (ConfigurationParameter parameter : parameters) {
+            if (processedArguments.containsKey(parameter.getName())) {
+                parameter.apply(true, processedArguments.get(parameter.getName()).get());
+            }
+        }
+        appliedValues.clear();
+
+        container = new ComponentContainer("TEST", () -> {
+        });
+        feature.assemble(new ApplicationAssemblyContext() {
+            @Override
+            public void addComponent(Object identifier, Component component) {
+                container.addComponent(identifier, component);
+            }
+
+            @Override
+            public void addComponent(Component component) {
+                watcher = (ConfigurationFileWatcher) component;
+                addComponent(null, component);
+            }
+
+            @Override
+            public void setParallelism(int parallelism) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void setShutdownTimeout(long timeout, TimeUnit unit) {
+                throw new UnsupportedOperationException();
+            }
+        }, parameters);
+        container.addComponent("interested", new Listener(notifications::add, "port", "name"));
+        container.addComponent("uninterested",
+                               new Listener(uninterestedNotifications::addAll, "other"));
+        container.start();
+    }
+
+    @After
+    public void tearDown() {
+        container.stop();
+    }
+
+    @Test
+    public void testReloadChangedParameters() throws Exception {
+        // reload explicitly rather than on file system events
+        watcher.stop();
+        write("port=2", "name=first", "mode=file");
+
+        assertEquals(Collections.singleton("port"), watcher.reload());
+        assertEquals(Collections.singletonMap("port", Collections.singletonList(2)),
+                     appliedValues);
+        assertEquals(Collections.singleton("port"), notifications.poll());
+        assertEquals(Collections.emptyList(), uninterestedNotifications);
+
+        assertEquals(Collections.emptySet(), watcher.reload());
+        assertTrue(notifications.isEmpty());
+    }
+
+    @Test
+    public void testRemovedAndInvalidParameters() throws Exception {
+        // reload explicitly rather than on file system events
+        watcher.stop();
+        write("port=invalid", "unknown=value", "mode=file");
+        assertEquals(Collections.singleton("name"), watcher.reload());
+        assertEquals(Collections.singletonMap("name", Collections.singletonList("default")),
+                     appliedValues);
+
+        appliedValues.clear();
+        write("port=invalid", "unknown=value", "mode=file", "name=second");
+        assertEquals(Collections.singleton("name"), watcher.reload());
+        assertEquals(Collections.singletonMap("name", Collections.singletonList("second")),
+                     appliedValues);
+    }
+
+    @Test
+    public void testUnreloadableParameters() throws Exception {
+        // reload explicitly rather than on file system events
+        watcher.stop();
+        write("port=1", "name=first", "mode=other");
+
+        assertEquals(Collections.emptySet(), watcher.reload());
+        assertTrue(appliedValues.isEmpty());
+        assertTrue(notifications.isEmpty());
+        assertEquals(Collections.emptyList(), uninterestedNotifications);
+    }
+
+    @Test
+    public void testMissingFile() throws Exception {
+        // reload explicitly rather than on file system events
+        watcher.stop();
+        assertTrue(file.delete());
+        assertEquals(Collections.emptySet(), watcher.reload());
+        assertTrue(appliedValues.isEmpty());
+    }
+
+    @Test
+    public void testWatchFile() throws Exception {
+        write("port=3", "name=second", "mode=file");
+
+        Set<String> notified = new HashSet<>();
+        while (!notified.containsAll(Arrays.asList("port", "name"))) {
+            Set<String> changed = notifications.poll(10, TimeUnit.SECONDS);
+            assertTrue("Configuration file has not been reloaded", changed != null);
+            notified.addAll(changed);
+        }
+        assertEquals(3, lastApplied("port"));
+        assertEquals("second", lastApplied("name"));
+    }
+
+    private void write(String... lines) throws Exception {
+        Files.write(file.toPath(), String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private synchronized Object lastApplied(String name) {
+        List<Object> values = appliedValues.get(name);
+        return values.get(values.size() - 1);
+    }
+
+    private synchronized void applied(String name, Object value) {
+        appliedValues.computeIfAbsent(name, ignored -> new ArrayList<>()).add(value);
+    }
+
+    private static class Listener extends BaseComponent implements ConfigurationReloadListener {
+        private final Consumer<Set<String>> consumer;
+        private final Set<String> interests;
+
+        Listener(Consumer<Set<String>> consumer, String... interests) {
+            this.consumer = consumer;
+            this.interests = new HashSet<>(Arrays.asList(interests));
+        }
+
+        @Override
+        public boolean isInterestedIn(String parameterName) {
+            return interests.contains(parameterName);
+        }
+
+        @Override
+        public void configurationReloaded(Set<String> parameterNames) {
+            consumer.accept(parameterNames);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package io.aboutcode.stage.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import io.aboutcode.stage.metrics.InMemoryTopicMetrics.TopicStatistics;
+import java.util.Arrays;
+import java.util.HashSet;
+import org.junit.Test;
+
+public class InMemoryTopicMetricsTest {
+    private InMemoryTopicMetrics metrics = new InMemoryTopicMetrics(2);
+
+    @Test
+    public void testCounters() throws Exception {
+        metrics.published("Topic", 1, 3);
+        metrics.published("Topic", 2, 6);
+        metrics.executed("Topic", 10, false);
+        metrics.executed("Topic", 10, true);
+
+        TopicStatistics statistics = metrics.getStatistics("Topic");
+        assertEquals(3, statistics.getPublished());
+        assertEquals(9, statistics.getDeliveries());
+        assertEquals(2, statistics.getExecutions());
+        assertEquals(1, statistics.getFailures());
+        assertNull(metrics.getStatistics("Unknown"));
+    }
+
+    @Test
+    public void testLatencies() throws Exception {
+        TopicStatistics empty = statistics(null);
+        assertEquals(0, empty.getLatencyNanos(0.5));
+
+        for (int i = 0; i < 99; i++) {
+            metrics.executed("Topic", 100, false);
+        }
+        metrics.executed("Topic", 5000, false);
+
+        TopicStatistics statistics = metrics.getStatistics("Topic");
+        assertEquals(127, statistics.getLatencyNanos(0.5));
+        assertEquals(127, statistics.getLatencyNanos(0.99));
+        assertEquals(8191, statistics.getLatencyNanos(1));
+    }
+
+    @Test
+    public void testQueueDepth() throws Exception {
+        metrics.queueDepthChanged("Topic", 1);
+        metrics.queueDepthChanged("Topic", 5);
+        metrics.queueDepthChanged("Topic", 2);
+
+        assertEquals(2, metrics.getStatistics("Topic").getQueueDepth());
+        assertEquals(5, metrics.getStatistics("Topic").getMaxQueueDepth());
+    }
+
+    @Test
+    public void testTopicLimit() throws Exception {
+        metrics.published("One", 1, 1);
+        metrics.published("Two", 1, 1);
+        metrics.published("Three", 1, 1);
+        metrics.published("Four", 1, 1);
+
+        assertEquals(new HashSet<>(Arrays.asList("One", "Two", InMemoryTopicMetrics.OTHER_TOPICS)),
+                     metrics.getTopics());
+        assertEquals(2, metrics.getStatistics(InMemoryTopicMetrics.OTHER_TOPICS).getPublished());
+
+        metrics.clear();
+        assertEquals(0, metrics.getTopics().size());
+    }
+
+    private TopicStatistics statistics(Object topic) {
+        metrics.queueDepthChanged(topic, 0);
+        return metrics.getStatistics(topic);
+    }
+}
@@ -0,0 +1,68 @@
+package io.aboutcode.stage.subscription;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import org.junit.Test;
+
+public class LongHandleMapTest {
+    private LongHandleMap<String> map = new LongHandleMap<>();
+
+    @Test
+    public void testPutAndGet() throws Exception {
+        assertNull(map.put(1L, "one"));
+        assertNull(map.put(-5L, "minus five"));
+        assertNull(map.put(0L, "zero"));
+        assertEquals("one", map.put(1L, "uno"));
+
+        assertEquals("uno", map.get(1L));
+        assertEquals("minus five", map.get(-5L));
+        assertEquals("zero", map.get(0L));
+        assertNull(map.get(2L));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+        for (long i = 0; i < 10000; i++) {
+            map.put(i, Long.toString(i));
+        }
+        for (long i = 0; i < 10000; i += 3) {
+            assertEquals(Long.toString(i), map.remove(i));
+        }
+        assertNull(map.remove(0L));
+
+        for (long i = 0; i < 10000; i++) {
+            assertEquals(i % 3 == 0 ? null : Long.toString(i), map.get(i));
+        }
+        assertEquals(6666, map.size());
+    }
+
+    @Test
+    public void testToArray() throws Exception {
+        map.put(3L, "c");
+        map.put(1L, "a");
+        map.put(2L, "b");
+        map.remove(2L);
+
+        String[] values = map.toArray(new String[0]);
+        Arrays.sort(values);
+        assertArrayEquals(new String[]{"a", "c"}, values);
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        for (long i = 0; i < 100; i++) {
+            map.put(i, Long.toString(i));
+        }
+        map.clear();
+
+        assertEquals(0, map.size());
+        assertNull(map.get(1L));
+        assertEquals(0, map.toArray(new String[0]).length);
+        map.put(1L, "one");
+        assertEquals("one", map.get(1L));
+    }
+}
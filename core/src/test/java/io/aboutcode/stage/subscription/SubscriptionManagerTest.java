@@ -1,7 +1,18 @@
 package io.aboutcode.stage.subscription;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
 
+import io.aboutcode.stage.concurrent.OverflowPolicy;
+import io.aboutcode.stage.concurrent.TopicExecutor;
+import io.aboutcode.stage.metrics.InMemoryTopicMetrics;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicLong;
 import org.junit.Test;
 
@@ -68,6 +79,348 @@ public class SubscriptionManagerTest {
         assertEquals("Topic=800", testListenerTwo.getValue());
     }
 
+    @Test
+    public void testTopics() throws Exception {
+        Long handleOne = subscriptionManager.subscribe("One", new TestListener("One"));
+        subscriptionManager.subscribe("Two", new TestListener("Two"));
+        subscriptionManager.subscribe(new TestListener(null));
+        assertEquals(new HashSet<>(Arrays.asList("One", "Two", null)),
+                     subscriptionManager.getTopics());
+
+        subscriptionManager.unsubscribe(handleOne);
+        assertEquals(new HashSet<>(Arrays.asList("Two", null)), subscriptionManager.getTopics());
+
+        subscriptionManager.clear();
+        assertEquals(Collections.emptySet(), subscriptionManager.getTopics());
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        String topic = "Topic";
+        TestListener testListenerOne = new TestListener(topic);
+        TestListener testListenerTwo = new TestListener(topic);
+        subscriptionManager.subscribe(topic, 100L, testListenerOne);
+        subscriptionManager.subscribe(topic, 200L, testListenerTwo);
+
+        subscriptionManager.forTopic(topic, (listener, handback, context) -> {
+            listener.process(handback);
+            if (listener == testListenerOne) {
+                context.cancel();
+            }
+        });
+        assertEquals("Topic=100", testListenerOne.getValue());
+        assertEquals("Topic=200", testListenerTwo.getValue());
+
+        subscriptionManager.forAll((listener, handback, context) -> listener.process(handback * 2));
+        assertEquals("Topic=100", testListenerOne.getValue());
+        assertEquals("Topic=400", testListenerTwo.getValue());
+    }
+
+    @Test
+    public void testDuplicateSubscription() throws Exception {
+        String topic = "Topic";
+        TestListener testListener = new TestListener(topic);
+        Long handle = subscriptionManager.subscribe(topic, 100L, testListener);
+        assertEquals(handle, subscriptionManager.subscribe(topic, 200L, testListener));
+
+        subscriptionManager.unsubscribe(handle);
+        subscriptionManager.forTopic(topic, (listener, handback, context) -> listener.process(1));
+        assertNull(testListener.getValue());
+    }
+
+    @Test
+    public void testManySubscribers() throws Exception {
+        String topic = "Topic";
+        List<TestListener> testListeners = new ArrayList<>();
+        List<Long> handles = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            TestListener testListener = new TestListener(topic);
+            testListeners.add(testListener);
+            handles.add(subscriptionManager.subscribe(topic, (long) i, testListener));
+        }
+        for (int i = 0; i < handles.size(); i += 2) {
+            subscriptionManager.unsubscribe(handles.get(i));
+        }
+
+        subscriptionManager
+                .forTopic(topic, (listener, handback, context) -> listener.process(handback));
+        for (int i = 0; i < testListeners.size(); i++) {
+            assertEquals(i % 2 == 0 ? null : "Topic=" + i, testListeners.get(i).getValue());
+        }
+    }
+
+    @Test
+    public void testLongHandles() throws Exception {
+        String topic = "Topic";
+        SubscriptionManager<Long, TestListener, Long> manager = SubscriptionManager.synchronous();
+        List<TestListener> testListeners = new ArrayList<>();
+        List<Long> handles = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            TestListener testListener = new TestListener(topic);
+            testListeners.add(testListener);
+            handles.add(manager.subscribe(topic, (long) i, testListener));
+        }
+        assertEquals(handles.get(0), manager.subscribe(topic, 0L, testListeners.get(0)));
+        for (int i = 0; i < handles.size(); i += 2) {
+            manager.unsubscribe(handles.get(i));
+        }
+        manager.forTopic(topic, (listener, handback, context) -> {
+            if (handback == 1L) {
+                context.cancel();
+            }
+        });
+
+        manager.forAll((listener, handback, context) -> listener.process(handback));
+        for (int i = 0; i < testListeners.size(); i++) {
+            assertEquals(i % 2 == 0 || i == 1 ? null : "Topic=" + i,
+                         testListeners.get(i).getValue());
+        }
+
+        manager.clear();
+        manager.forAll((listener, handback, context) -> listener.process(-1));
+        assertEquals("Topic=3", testListeners.get(3).getValue());
+    }
+
+    @Test
+    public void testBatch() throws Exception {
+        String topic = "Topic";
+        StringBuilder resultOne = new StringBuilder();
+        StringBuilder resultTwo = new StringBuilder();
+        SubscriptionManager<Long, StringBuilder, Void> manager = SubscriptionManager
+                .synchronous();
+        manager.subscribe(topic, resultOne);
+        manager.subscribe(topic, resultTwo);
+
+        List<SubscriptionManager.SubscriptionAction<StringBuilder, Void>> batch = Arrays.asList(
+                (listener, handback, context) -> listener.append("1"),
+                (listener, handback, context) -> {
+                    listener.append("2");
+                    if (listener == resultOne) {
+                        context.cancel();
+                    }
+                },
+                (listener, handback, context) -> listener.append("3"));
+        manager.forTopic(topic, batch);
+
+        assertEquals("12", resultOne.toString());
+        assertEquals("123", resultTwo.toString());
+    }
+
+    @Test
+    public void testSubscriberLanes() throws Exception {
+        String topic = "Topic";
+        List<Object> lanes = new ArrayList<>();
+        List<Runnable> tasks = new ArrayList<>();
+        SubscriptionManager<Long, StringBuilder, Void> manager = SubscriptionManagerBuilder
+                .create()
+                .withExecutor(new TopicExecutor() {
+                    @Override
+                    public void execute(Object topic, Runnable task) {
+                        lanes.add(topic);
+                        tasks.add(task);
+                    }
+
+                    @Override
+                    public void execute(Runnable task) {
+                        execute(null, task);
+                    }
+                })
+                .withSubscriberLanes(true)
+                .build();
+        StringBuilder slow = new StringBuilder();
+        StringBuilder fast = new StringBuilder();
+        manager.subscribe(topic, slow);
+        manager.subscribe(topic, fast);
+
+        manager.forTopic(topic, (listener, handback, context) -> listener.append("1"));
+        assertEquals(2, lanes.size());
+        assertNotEquals(lanes.get(0), lanes.get(1));
+        tasks.get(1).run();
+        assertEquals("", slow.toString());
+        assertEquals("1", fast.toString());
+
+        manager.forTopic(topic, "a", (listener, handback, context) -> listener.append("a1"));
+        manager.forTopic(topic, "b", (listener, handback, context) -> listener.append("b1"));
+        manager.forTopic(topic, "a", (listener, handback, context) -> listener.append("a2"));
+        manager.forTopic(topic, (listener, handback, context) -> listener.append("2"));
+        // the slow subscriber is still scheduled, so only the fast one was scheduled again
+        assertEquals(3, tasks.size());
+        tasks.get(0).run();
+        assertEquals("1a2b12", slow.toString());
+        tasks.get(2).run();
+        assertEquals("1a2b12", fast.toString());
+        assertEquals(3, tasks.size());
+    }
+
+    @Test
+    public void testSubscriberLaneCapacity() throws Exception {
+        String topic = "Topic";
+        List<Runnable> tasks = new ArrayList<>();
+        SubscriptionManager<Long, StringBuilder, Void> manager = SubscriptionManagerBuilder
+                .create()
+                .withExecutor(new TopicExecutor() {
+                    @Override
+                    public void execute(Object topic, Runnable task) {
+                        tasks.add(task);
+                    }
+
+                    @Override
+                    public void execute(Runnable task) {
+                        execute(null, task);
+                    }
+                })
+                .withSubscriberLanes(true)
+                .withSubscriberLaneCapacity(2, OverflowPolicy.DROP_OLDEST)
+                .build();
+        StringBuilder result = new StringBuilder();
+        manager.subscribe(topic, result);
+
+        manager.forTopic(topic, "a", (listener, handback, context) -> listener.append("a1"));
+        manager.forTopic(topic, (listener, handback, context) -> listener.append("1"));
+        manager.forTopic(topic, (listener, handback, context) -> listener.append("2"));
+        // the conflated event has been discarded, so this one is added again
+        manager.forTopic(topic, "a", (listener, handback, context) -> listener.append("a2"));
+        manager.forTopic(topic, "a", (listener, handback, context) -> listener.append("a3"));
+        assertEquals(1, tasks.size());
+        tasks.get(0).run();
+        assertEquals("2a3", result.toString());
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void testFullSubscriberLane() throws Exception {
+        SubscriptionManager<Long, StringBuilder, Void> manager = SubscriptionManagerBuilder
+                .create()
+                .withExecutor(new TopicExecutor() {
+                    @Override
+                    public void execute(Object topic, Runnable task) {
+                    }
+
+                    @Override
+                    public void execute(Runnable task) {
+                    }
+                })
+                .withSubscriberLanes(true)
+                .withSubscriberLaneCapacity(1, OverflowPolicy.FAIL)
+                .build();
+        manager.subscribe("Topic", new StringBuilder());
+
+        manager.forTopic("Topic", (listener, handback, context) -> listener.append("1"));
+        manager.forTopic("Topic", (listener, handback, context) -> listener.append("2"));
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        InMemoryTopicMetrics metrics = new InMemoryTopicMetrics();
+        SubscriptionManager<Long, TestListener, Long> manager = SubscriptionManagerBuilder
+                .create()
+                .withMetrics(metrics)
+                .build();
+        manager.subscribe("One", 1L, new TestListener("One"));
+        manager.subscribe("One", 2L, new TestListener("One"));
+        manager.subscribeToPattern("#", 3L, new TestListener("All"));
+
+        manager.forTopic("One", (listener, handback, context) -> listener.process(handback));
+        manager.forTopic("One", Arrays.asList(
+                (listener, handback, context) -> listener.process(handback),
+                (listener, handback, context) -> listener.process(handback)));
+        manager.forAll((listener, handback, context) -> listener.process(handback));
+
+        assertEquals(3, metrics.getStatistics("One").getPublished());
+        assertEquals(9, metrics.getStatistics("One").getDeliveries());
+        assertEquals(8, metrics.getStatistics("One").getExecutions());
+        assertEquals(4, metrics.getStatistics("#").getExecutions());
+        assertEquals(3, metrics.getStatistics(null).getDeliveries());
+        assertEquals(new HashSet<>(Arrays.asList("One", "#", null)), metrics.getTopics());
+    }
+
+    @Test
+    public void testPatterns() throws Exception {
+        TestListener exact = new TestListener("exact");
+        TestListener singleLevel = new TestListener("single");
+        TestListener multiLevel = new TestListener("multi");
+        TestListener all = new TestListener("all");
+        subscriptionManager.subscribe("prices/EUR/spot", 1L, exact);
+        Long singleLevelHandle = subscriptionManager
+                .subscribeToPattern("prices/*/spot", 2L, singleLevel);
+        subscriptionManager.subscribeToPattern("prices/#", 3L, multiLevel);
+        subscriptionManager.subscribeToPattern("#", 4L, all);
+
+        subscriptionManager.forTopic("prices/EUR/spot", (listener, handback, context) ->
+                listener.process(handback));
+        assertEquals("exact=1", exact.getValue());
+        assertEquals("single=2", singleLevel.getValue());
+        assertEquals("multi=3", multiLevel.getValue());
+        assertEquals("all=4", all.getValue());
+
+        subscriptionManager.forTopic("prices", (listener, handback, context) ->
+                listener.process(handback * 10));
+        assertEquals("exact=1", exact.getValue());
+        assertEquals("single=2", singleLevel.getValue());
+        assertEquals("multi=30", multiLevel.getValue());
+        assertEquals("all=40", all.getValue());
+
+        subscriptionManager.unsubscribe(singleLevelHandle);
+        subscriptionManager.forTopic("prices/USD/spot", (listener, handback, context) ->
+                listener.process(handback * 100));
+        assertEquals("exact=1", exact.getValue());
+        assertEquals("single=2", singleLevel.getValue());
+        assertEquals("multi=300", multiLevel.getValue());
+        assertEquals("all=400", all.getValue());
+
+        subscriptionManager.forTopic("volumes/USD", (listener, handback, context) ->
+                listener.process(handback * 1000));
+        assertEquals("multi=300", multiLevel.getValue());
+        assertEquals("all=4000", all.getValue());
+    }
+
+    @Test
+    public void testManyPatternLevels() throws Exception {
+        List<Long> handles = new ArrayList<>();
+        for (long i = 0; i < 20; i++) {
+            handles.add(subscriptionManager.subscribeToPattern("prices/" + i + "/*", i,
+                                                               new TestListener("prices")));
+        }
+        for (int i = 0; i < 10; i++) {
+            subscriptionManager.unsubscribe(handles.get(i));
+        }
+
+        List<Long> delivered = new ArrayList<>();
+        for (long i = 0; i < 20; i++) {
+            subscriptionManager.forTopic("prices/" + i + "/spot", (listener, handback, context) ->
+                    delivered.add(handback));
+        }
+        subscriptionManager.forTopic("prices/1", (listener, handback, context) ->
+                delivered.add(handback));
+        assertEquals(Arrays.asList(10L, 11L, 12L, 13L, 14L, 15L, 16L, 17L, 18L, 19L), delivered);
+    }
+
+    @Test
+    public void testSingleLevelWildcardTopic() throws Exception {
+        AtomicLong deliveries = new AtomicLong();
+        subscriptionManager.subscribeToPattern("prices/*", 1L, new TestListener("single"));
+        subscriptionManager.subscribeToPattern("prices/#", 2L, new TestListener("multi"));
+
+        subscriptionManager.forTopic("prices/*", (listener, handback, context) ->
+                deliveries.incrementAndGet());
+        assertEquals(2, deliveries.get());
+    }
+
+    @Test
+    public void testMultiLevelWildcardTopic() throws Exception {
+        AtomicLong deliveries = new AtomicLong();
+        subscriptionManager.subscribeToPattern("prices/*", 1L, new TestListener("single"));
+        subscriptionManager.subscribeToPattern("prices/#", 2L, new TestListener("multi"));
+
+        subscriptionManager.forTopic("prices/#", (listener, handback, context) ->
+                deliveries.incrementAndGet());
+        assertEquals(2, deliveries.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPattern() throws Exception {
+        subscriptionManager.subscribeToPattern("prices/#/spot", new TestListener("invalid"));
+    }
+
     private class TestListener {
         private String topic;
         private String value;
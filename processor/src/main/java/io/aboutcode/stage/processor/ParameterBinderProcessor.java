@@ -0,0 +1,166 @@
+package io.aboutcode.stage.processor;
+
+import io.aboutcode.stage.configuration.ConfigurationParameter;
+import io.aboutcode.stage.configuration.Parameter;
+import io.aboutcode.stage.configuration.ParameterBinder;
+import io.aboutcode.stage.configuration.ParameterParser;
+import io.aboutcode.stage.util.InputConverter;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+
+/**
+ * <p>Generates a {@link ParameterBinder} for every class that declares fields annotated with
+ * {@link Parameter}. The generated binder creates the configuration parameters of the class with
+ * the values of the annotation compiled in and assigns the fields directly, so the {@link
+ * ParameterParser} does not need reflection to analyse configuration objects of the class.</p>
+ *
+ * <p>Just like the {@link ParameterParser}, only the fields declared by the class itself are
+ * considered. If any of them is private, final or static, refers to a type that is not accessible
+ * from the package of the class or specifies an input converter that cannot be instantiated from
+ * there, no binder is generated and the class is analysed via reflection as before. A note
+ * explaining the reason is reported to the compiler in that case.</p>
+ */
+@SupportedAnnotationTypes("io.aboutcode.stage.configuration.Parameter")
+public class ParameterBinderProcessor extends SourceGeneratingProcessor {
+    public ParameterBinderProcessor() {
+        super(Parameter.class, "binder");
+    }
+
+    @Override
+    void generate(TypeElement type) throws UnsupportedException, IOException {
+        StringBuilder body = new StringBuilder(String.format(
+                "    @Override%n"
+                + "    public java.util.List<%1$s> bind(String parameterPrefix, %2$s target) {%n"
+                + "        java.util.List<%1$s> result = new java.util.ArrayList<>();%n",
+                ConfigurationParameter.class.getName(), type.getQualifiedName()));
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            Parameter annotation = field.getAnnotation(Parameter.class);
+            if (annotation != null) {
+                body.append(String.format("        result.add(%s);%n",
+                                          parameter(type, field, annotation)));
+            }
+        }
+        body.append(String.format("        return result;%n"
+                                  + "    }%n"));
+
+        write(type, ParameterBinder.binderClassName(binaryName(type)),
+              ParameterBinder.class.getName(), body.toString());
+    }
+
+    private String parameter(TypeElement type, VariableElement field, Parameter annotation)
+            throws UnsupportedException {
+        String packageName = packageOf(type);
+        checkAssignable(field, packageName);
+
+        String fieldAccess = String.format("target.%s", field.getSimpleName());
+        TypeMirror fieldType = field.asType();
+        String factory;
+        TypeMirror specificType;
+        String assignedValue;
+        if (fieldType.getKind() == TypeKind.ARRAY) {
+            factory = "array";
+            specificType = ((ArrayType) fieldType).getComponentType();
+            assignedValue = String.format("(%s) value", erasure(fieldType));
+        } else if (fieldType.getKind() == TypeKind.DECLARED
+                   && isAssignable(fieldType, Collection.class)) {
+            factory = "collection";
+            List<? extends TypeMirror> typeArguments = ((DeclaredType) fieldType)
+                    .getTypeArguments();
+            if (typeArguments.isEmpty()) {
+                throw new UnsupportedException(String.format(
+                        "collection field '%s' does not declare its element type",
+                        field.getSimpleName()));
+            }
+            specificType = typeArguments.get(0);
+            assignedValue = String.format(
+                    "value == null ? null : new %s((java.util.Collection) value)",
+                    collectionImplementation(fieldType, field));
+        } else if (fieldType.getKind().isPrimitive()) {
+            factory = "singleValue";
+            specificType = fieldType;
+            assignedValue = String.format("(%s) value", processingEnv
+                    .getTypeUtils().boxedClass((PrimitiveType) fieldType).getQualifiedName());
+        } else {
+            factory = "singleValue";
+            specificType = fieldType;
+            assignedValue = String.format("(%s) value", erasure(fieldType));
+        }
+
+        if (specificType.getKind() == TypeKind.DECLARED) {
+            checkAccessible((TypeElement) ((DeclaredType) specificType).asElement(), packageName);
+        } else if (!specificType.getKind().isPrimitive()) {
+            throw new UnsupportedException(String.format(
+                    "type of field '%s' is neither a class, an interface nor a primitive",
+                    field.getSimpleName()));
+        }
+        String specificClass = erasure(specificType) + ".class";
+
+        return String.format("%s.%s(%n"
+                             + "                parameterPrefix, %s, %s, %s,%n"
+                             + "                %s, %s,%n"
+                             + "                %s,%n"
+                             + "                value -> %s = %s)",
+                             ParameterParser.class.getName(), factory,
+                             constant(annotation.name()), constant(annotation.description()),
+                             annotation.mandatory(), specificClass, fieldAccess,
+                             converter(field, annotation, specificClass, packageName),
+                             fieldAccess, assignedValue);
+    }
+
+    private String converter(VariableElement field, Parameter annotation, String specificClass,
+                             String packageName)
+            throws UnsupportedException {
+        TypeMirror converterType;
+        try {
+            annotation.inputConverter();
+            throw new IllegalStateException("Input converter has been compiled already");
+        } catch (MirroredTypeException e) {
+            // classes referenced by annotations are only available as type mirrors
+            converterType = e.getTypeMirror();
+        }
+
+        if (InputConverter.class.getName().equals(erasure(converterType))) {
+            return String.format("%s.defaultConverter(%s, %s, %s)",
+                                 ParameterParser.class.getName(), specificClass,
+                                 constant(field.getSimpleName().toString()),
+                                 constant(annotation.name()));
+        }
+
+        TypeElement converterElement = (TypeElement) ((DeclaredType) converterType).asElement();
+        if (!isInstantiable(converterElement)) {
+            throw new UnsupportedException(String.format(
+                    "input converter of field '%s' cannot be instantiated",
+                    field.getSimpleName()));
+        }
+        checkAccessible(converterElement, packageName);
+        return String.format("new %s()", erasure(converterType));
+    }
+
+    private String collectionImplementation(TypeMirror fieldType, VariableElement field)
+            throws UnsupportedException {
+        // the same collection types are created as when assigning via reflection
+        String collectionName = erasure(fieldType);
+        switch (collectionName) {
+            case "java.util.Set":
+                return "java.util.HashSet";
+            case "java.util.List":
+            case "java.util.Collection":
+                return "java.util.ArrayList";
+            default:
+                throw new UnsupportedException(String.format(
+                        "collection type of field '%s' is neither Set, List nor Collection",
+                        field.getSimpleName()));
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package io.aboutcode.stage.processor;
+
+import io.aboutcode.stage.dependency.DependencyContext;
+import io.aboutcode.stage.dependency.DependencyException;
+import io.aboutcode.stage.dependency.Resolved;
+import io.aboutcode.stage.dependency.ResolvedInjector;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+
+/**
+ * <p>Generates a {@link ResolvedInjector} for every class that declares fields annotated with
+ * {@link Resolved}. The generated injector assigns the fields of the class and all its
+ * superclasses directly, so the {@link io.aboutcode.stage.dependency.AnnotatedDependencyParser}
+ * does not need reflection to inject dependencies into instances of the class.</p>
+ *
+ * <p>Generated code can only assign fields it can access. If any annotated field of a class is
+ * private, final or static, or refers to a type that is not accessible from the package of the
+ * class, no injector is generated and dependencies are injected via reflection as before. A note
+ * explaining the reason is reported to the compiler in that case.</p>
+ *
+ * <p>Subclasses that do not declare annotated fields themselves do not get an injector of their
+ * own and use reflection as well.</p>
+ */
+@SupportedAnnotationTypes("io.aboutcode.stage.dependency.Resolved")
+public class ResolvedInjectorProcessor extends SourceGeneratingProcessor {
+    public ResolvedInjectorProcessor() {
+        super(Resolved.class, "injector");
+    }
+
+    @Override
+    void generate(TypeElement type) throws UnsupportedException, IOException {
+        StringBuilder body = new StringBuilder(String.format(
+                "    @Override%n"
+                + "    public void inject(%s target, %s context)%n"
+                + "            throws %s {%n",
+                type.getQualifiedName(), DependencyContext.class.getName(),
+                DependencyException.class.getName()));
+        for (TypeElement current = type; current != null; current = superclass(current)) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                Resolved annotation = field.getAnnotation(Resolved.class);
+                if (annotation != null) {
+                    body.append(assignment(type, current, field, annotation));
+                }
+            }
+        }
+        body.append(String.format("    }%n"));
+
+        write(type, ResolvedInjector.injectorClassName(binaryName(type)),
+              ResolvedInjector.class.getName(), body.toString());
+    }
+
+    private String assignment(TypeElement type, TypeElement declaringType, VariableElement field,
+                              Resolved annotation)
+            throws UnsupportedException {
+        String packageName = packageOf(type);
+        checkAssignable(field, packageName);
+
+        // fields of superclasses might be hidden by fields of the same name
+        String target = declaringType.equals(type) ? "target" :
+                        String.format("((%s) target)", erasure(declaringType.asType()));
+        String fieldAccess = String.format("%s.%s", target, field.getSimpleName());
+        TypeMirror fieldType = field.asType();
+
+        if (fieldType.getKind() == TypeKind.ARRAY) {
+            TypeMirror componentType = ((ArrayType) fieldType).getComponentType();
+            String componentName = referencedType(componentType, field, packageName);
+            return String.format("        %s = context.retrieveDependencies(%s.class)"
+                                 + ".toArray(new %s[0]);%n",
+                                 fieldAccess, componentName, componentName);
+        }
+
+        if (fieldType.getKind() == TypeKind.DECLARED && isAssignable(fieldType, Collection.class)) {
+            List<? extends TypeMirror> typeArguments = ((DeclaredType) fieldType)
+                    .getTypeArguments();
+            if (typeArguments.isEmpty()) {
+                throw new UnsupportedException(String.format(
+                        "collection field '%s' does not declare its element type",
+                        field.getSimpleName()));
+            }
+            String elementName = referencedType(typeArguments.get(0), field, packageName);
+            return String.format("        {%n"
+                                 + "            java.util.Collection collection = new %s;%n"
+                                 + "            collection.addAll(context.retrieveDependencies("
+                                 + "%s.class));%n"
+                                 + "            %s = (%s) collection;%n"
+                                 + "        }%n",
+                                 collectionInstantiation(fieldType, field, packageName),
+                                 elementName, fieldAccess, erasure(fieldType));
+        }
+
+        String retrieval = annotation.identifier().trim().isEmpty() ?
+                           "context.retrieveDependency(%s.class, %s)" :
+                           "context.retrieveDependency(" + constant(annotation.identifier())
+                           + ", %s.class, %s)";
+        if (fieldType.getKind().isPrimitive()) {
+            // primitive fields keep their value if the dependency is not available
+            String boxedName = processingEnv.getTypeUtils()
+                                            .boxedClass((PrimitiveType) fieldType)
+                                            .getQualifiedName().toString();
+            return String.format("        {%n"
+                                 + "            %s value = " + retrieval + ";%n"
+                                 + "            if (value != null) {%n"
+                                 + "                %s = value;%n"
+                                 + "            }%n"
+                                 + "        }%n",
+                                 boxedName, fieldType, annotation.mandatory(), fieldAccess);
+        }
+        String typeName = referencedType(fieldType, field, packageName);
+        return String.format("        %s = (%s) " + retrieval + ";%n",
+                             fieldAccess, typeName, typeName, annotation.mandatory());
+    }
+
+    private String collectionInstantiation(TypeMirror fieldType, VariableElement field,
+                                           String packageName)
+            throws UnsupportedException {
+        // the same collection types are created as when injecting via reflection
+        String collectionName = erasure(fieldType);
+        switch (collectionName) {
+            case "java.util.Set":
+                return "java.util.HashSet()";
+            case "java.util.List":
+            case "java.util.Collection":
+                return "java.util.ArrayList()";
+            default:
+                TypeElement collectionType = (TypeElement) ((DeclaredType) fieldType).asElement();
+                if (!isInstantiable(collectionType)) {
+                    throw new UnsupportedException(String.format(
+                            "collection type of field '%s' cannot be instantiated",
+                            field.getSimpleName()));
+                }
+                checkAccessible(collectionType, packageName);
+                return collectionName + "()";
+        }
+    }
+
+    /**
+     * Returns the name of the erasure of the specified type if it can be referenced from the
+     * generated injector.
+     */
+    private String referencedType(TypeMirror type, VariableElement field, String packageName)
+            throws UnsupportedException {
+        if (type.getKind() != TypeKind.DECLARED) {
+            throw new UnsupportedException(String.format(
+                    "type of field '%s' is neither a class nor an interface",
+                    field.getSimpleName()));
+        }
+        checkAccessible((TypeElement) ((DeclaredType) type).asElement(), packageName);
+        return erasure(type);
+    }
+
+    private static TypeElement superclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement result = (TypeElement) ((DeclaredType) superclass).asElement();
+        return Object.class.getName().equals(result.getQualifiedName().toString()) ? null : result;
+    }
+}
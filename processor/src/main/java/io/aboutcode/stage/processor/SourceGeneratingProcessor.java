@@ -0,0 +1,210 @@
+package io.aboutcode.stage.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+
+/**
+ * Base for processors that generate one class per class declaring fields with a specific
+ * annotation. The generated class replaces reflection on the annotated fields at runtime, hence
+ * classes for which no code can be generated are reported as a note only: they keep working
+ * through reflection.
+ */
+abstract class SourceGeneratingProcessor extends AbstractProcessor {
+    private final Class<? extends Annotation> annotation;
+    private final String generatedKind;
+
+    /**
+     * @param annotation    The annotation of the fields to generate code for
+     * @param generatedKind The kind of class generated, used in messages
+     */
+    SourceGeneratingProcessor(Class<? extends Annotation> annotation, String generatedKind) {
+        this.annotation = annotation;
+        this.generatedKind = generatedKind;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> types = new LinkedHashSet<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            if (element.getKind() == ElementKind.FIELD) {
+                types.add((TypeElement) element.getEnclosingElement());
+            }
+        }
+
+        for (TypeElement type : types) {
+            try {
+                if (type.getNestingKind() == NestingKind.LOCAL
+                    || type.getNestingKind() == NestingKind.ANONYMOUS) {
+                    throw new UnsupportedException(
+                            "local and anonymous classes are not supported");
+                }
+                checkAccessible(type, packageOf(type));
+                generate(type);
+            } catch (UnsupportedException e) {
+                processingEnv.getMessager().printMessage(Kind.NOTE, String.format(
+                        "No %s generated for '%s', reflection is used instead: %s",
+                        generatedKind, type.getQualifiedName(), e.getMessage()), type);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Kind.ERROR, String.format(
+                        "Could not generate %s for '%s' because: %s",
+                        generatedKind, type.getQualifiedName(), e.getMessage()), type);
+            }
+        }
+        // the annotation is left to other processors
+        return false;
+    }
+
+    /**
+     * Generates the class for the specified type, which is accessible from its own package.
+     *
+     * @param type The type declaring annotated fields
+     *
+     * @throws UnsupportedException Thrown if no code can be generated for the type
+     * @throws IOException          Thrown if the generated source could not be written
+     */
+    abstract void generate(TypeElement type) throws UnsupportedException, IOException;
+
+    /**
+     * Writes a class that implements the specified generic interface for the specified type.
+     *
+     * @param type          The type the class is generated for
+     * @param className     The binary name of the generated class
+     * @param interfaceName The fully qualified name of the implemented interface
+     * @param body          The members of the generated class
+     *
+     * @throws IOException Thrown if the source could not be written
+     */
+    void write(TypeElement type, String className, String interfaceName, String body)
+            throws IOException {
+        String packageName = packageOf(type);
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        String targetName = type.getQualifiedName().toString();
+        try (Writer writer = processingEnv.getFiler().createSourceFile(className, type)
+                                          .openWriter()) {
+            if (!packageName.isEmpty()) {
+                writer.write(String.format("package %s;%n%n", packageName));
+            }
+            writer.write(String.format("/**%n"
+                                       + " * The %s of %s, generated by %s.%n"
+                                       + " */%n", generatedKind, targetName, getClass().getName()));
+            writer.write(String.format("@SuppressWarnings({\"unchecked\", \"rawtypes\"})%n"));
+            writer.write(String.format("public final class %s implements %s<%s> {%n",
+                                       simpleName, interfaceName, targetName));
+            writer.write(body);
+            writer.write(String.format("}%n"));
+        }
+    }
+
+    /**
+     * Checks that the specified field can be assigned from generated code in the specified
+     * package.
+     */
+    void checkAssignable(VariableElement field, String packageName)
+            throws UnsupportedException {
+        Set<Modifier> modifiers = field.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL)
+            || modifiers.contains(Modifier.STATIC)) {
+            throw new UnsupportedException(String.format(
+                    "field '%s' is private, final or static", field.getSimpleName()));
+        }
+        TypeElement declaringType = (TypeElement) field.getEnclosingElement();
+        if (!packageName.equals(packageOf(declaringType))
+            && !modifiers.contains(Modifier.PUBLIC)) {
+            throw new UnsupportedException(String.format(
+                    "field '%s' is not public but declared in another package",
+                    field.getSimpleName()));
+        }
+        checkAccessible(declaringType, packageName);
+    }
+
+    /**
+     * Checks that the specified type can be referenced from generated code in the specified
+     * package.
+     */
+    void checkAccessible(TypeElement type, String packageName) throws UnsupportedException {
+        boolean samePackage = packageName.equals(packageOf(type));
+        for (Element current = type;
+             current.getKind().isClass() || current.getKind().isInterface();
+             current = current.getEnclosingElement()) {
+            Set<Modifier> modifiers = current.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE)
+                || (!samePackage && !modifiers.contains(Modifier.PUBLIC))) {
+                throw new UnsupportedException(String.format(
+                        "type '%s' is not accessible", type.getQualifiedName()));
+            }
+        }
+    }
+
+    /**
+     * Returns whether the specified type is a class that can be instantiated through a public
+     * constructor without arguments.
+     */
+    static boolean isInstantiable(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS
+            || type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+        for (ExecutableElement constructor
+                : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty()
+                && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean isAssignable(TypeMirror type, Class<?> target) {
+        TypeMirror targetType = processingEnv.getTypeUtils().erasure(
+                processingEnv.getElementUtils().getTypeElement(target.getCanonicalName())
+                             .asType());
+        return processingEnv.getTypeUtils().isAssignable(
+                processingEnv.getTypeUtils().erasure(type), targetType);
+    }
+
+    String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    String binaryName(TypeElement type) {
+        return processingEnv.getElementUtils().getBinaryName(type).toString();
+    }
+
+    String packageOf(TypeElement type) {
+        return processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+    }
+
+    String constant(String value) {
+        return processingEnv.getElementUtils().getConstantExpression(value);
+    }
+
+    /**
+     * Thrown if no code can be generated for a class, with the reason as message.
+     */
+    static class UnsupportedException extends Exception {
+        UnsupportedException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package io.aboutcode.stage.processor;
+
+import static org.junit.Assert.assertTrue;
+
+import io.aboutcode.stage.dependency.Resolved;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.processing.Processor;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * The result of compiling sources against the core module with a single annotation processor.
+ */
+final class Compilation {
+    private static final Pattern CLASS_NAME = Pattern.compile("public class (\\w+)");
+    private final File output;
+    private final DiagnosticCollector<JavaFileObject> diagnostics;
+
+    private Compilation(File output, DiagnosticCollector<JavaFileObject> diagnostics) {
+        this.output = output;
+        this.diagnostics = diagnostics;
+    }
+
+    /**
+     * Compiles the specified sources, each declaring one public class, and fails if compilation
+     * fails.
+     */
+    static Compilation compile(TemporaryFolder folder, Processor processor, String... sources)
+            throws IOException {
+        File sourceFolder = folder.newFolder("sources");
+        File generatedFolder = folder.newFolder("generated");
+        File output = folder.newFolder("classes");
+        List<File> files = new ArrayList<>();
+        for (String source : sources) {
+            Matcher name = CLASS_NAME.matcher(source);
+            assertTrue(name.find());
+            File file = new File(sourceFolder, name.group(1) + ".java");
+            Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+            files.add(file);
+        }
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler
+                .getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            String classpath = new File(Resolved.class.getProtectionDomain().getCodeSource()
+                                                      .getLocation().getPath()).getPath();
+            JavaCompiler.CompilationTask task = compiler.getTask(
+                    null, fileManager, diagnostics,
+                    Arrays.asList("-d", output.getPath(), "-s", generatedFolder.getPath(),
+                                  "-classpath", classpath),
+                    null, fileManager.getJavaFileObjectsFromFiles(files));
+            task.setProcessors(Collections.singletonList(processor));
+            assertTrue(diagnostics.getDiagnostics().toString(), task.call());
+        }
+        return new Compilation(output, diagnostics);
+    }
+
+    boolean isGenerated(String className) {
+        return new File(output, className.replace('.', '/') + ".class").isFile();
+    }
+
+    /**
+     * Returns whether a note containing all specified fragments has been reported.
+     */
+    boolean isNoted(String... fragments) {
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            String message = diagnostic.getMessage(null);
+            if (diagnostic.getKind() == Diagnostic.Kind.NOTE
+                && Arrays.stream(fragments).allMatch(message::contains)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a class loader for the compiled classes that delegates to the test's class loader.
+     */
+    URLClassLoader loader() throws IOException {
+        return new URLClassLoader(new URL[]{output.toURI().toURL()},
+                                  Compilation.class.getClassLoader());
+    }
+}
@@ -0,0 +1,123 @@
+package io.aboutcode.stage.processor;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import io.aboutcode.stage.configuration.ConfigurationParameter;
+import io.aboutcode.stage.configuration.ParameterParser;
+import java.lang.reflect.Field;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ParameterBinderProcessorTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private Compilation compilation;
+
+    @Before
+    public void setUp() throws Exception {
+        compilation = Compilation.compile(
+                folder, new ParameterBinderProcessor(),
+                "package sample;\n"
+                + "import io.aboutcode.stage.configuration.Parameter;\n"
+                + "import java.util.List;\n"
+                + "import java.util.Set;\n"
+                + "public class Configuration {\n"
+                + "    @Parameter(name = \"port\", description = \"The \\\"port\\\"\")\n"
+                + "    int port = 80;\n"
+                + "    @Parameter(name = \"host\", description = \"The host\", mandatory = false)\n"
+                + "    String host = \"localhost\";\n"
+                + "    @Parameter(name = \"upper\", description = \"Converted\",\n"
+                + "               inputConverter = UpperCase.class)\n"
+                + "    String upper;\n"
+                + "    @Parameter(name = \"ports\", description = \"Ports\")\n"
+                + "    int[] ports;\n"
+                + "    @Parameter(name = \"names\", description = \"Names\")\n"
+                + "    List<String> names;\n"
+                + "    @Parameter(name = \"tags\", description = \"Tags\", mandatory = false)\n"
+                + "    Set<String> tags;\n"
+                + "    String ignored;\n"
+                + "}\n",
+                "package sample;\n"
+                + "import io.aboutcode.stage.util.InputConverter;\n"
+                + "public class UpperCase implements InputConverter<String> {\n"
+                + "    public String convert(String input) {\n"
+                + "        return input.toUpperCase();\n"
+                + "    }\n"
+                + "}\n",
+                "package sample;\n"
+                + "import io.aboutcode.stage.configuration.Parameter;\n"
+                + "public class Fallback {\n"
+                + "    @Parameter(name = \"value\", description = \"A value\")\n"
+                + "    private String value;\n"
+                + "}\n");
+    }
+
+    @Test
+    public void testGeneratedBinder() throws Exception {
+        assertTrue(compilation.isGenerated("sample.Configuration_ParameterBinder"));
+
+        try (URLClassLoader loader = compilation.loader()) {
+            Object target = loader.loadClass("sample.Configuration").newInstance();
+            List<ConfigurationParameter> parameters = ParameterParser
+                    .parseParameterClass("prefix", target);
+
+            assertEquals(Arrays.asList("prefix-port", "prefix-host", "prefix-upper",
+                                       "prefix-ports", "prefix-names", "prefix-tags"),
+                         parameters.stream().map(ConfigurationParameter::getName)
+                                   .collect(Collectors.toList()));
+            assertEquals(Arrays.asList("int", "String", "String", "int", "String", "String"),
+                         parameters.stream().map(ConfigurationParameter::getTypeName)
+                                   .collect(Collectors.toList()));
+            assertEquals("The \"port\"", parameters.get(0).getDescription());
+            assertTrue(parameters.get(0).isMandatory());
+            assertFalse(parameters.get(1).isMandatory());
+
+            parameters.get(0).apply(true, Collections.singletonList("8080"));
+            parameters.get(1).apply(false, null);
+            parameters.get(2).apply(true, Collections.singletonList("value"));
+            parameters.get(3).apply(true, Arrays.asList("1", "2"));
+            parameters.get(4).apply(true, Arrays.asList("b", "a"));
+            parameters.get(5).apply(true, Arrays.asList("x", "x"));
+
+            assertEquals(8080, field(target, "port"));
+            assertEquals("localhost", field(target, "host"));
+            assertEquals("VALUE", field(target, "upper"));
+            assertArrayEquals(new int[]{1, 2}, (int[]) field(target, "ports"));
+            assertEquals(Arrays.asList("b", "a"), field(target, "names"));
+            assertEquals(new HashSet<>(Collections.singletonList("x")), field(target, "tags"));
+        }
+    }
+
+    @Test
+    public void testReflectionFallback() throws Exception {
+        assertFalse(compilation.isGenerated("sample.Fallback_ParameterBinder"));
+        assertTrue(compilation.isNoted("sample.Fallback", "'value'"));
+
+        try (URLClassLoader loader = compilation.loader()) {
+            Object target = loader.loadClass("sample.Fallback").newInstance();
+            List<ConfigurationParameter> parameters = ParameterParser
+                    .parseParameterClass(null, target);
+
+            assertEquals(1, parameters.size());
+            parameters.get(0).apply(true, Collections.singletonList("reflected"));
+            assertEquals("reflected", field(target, "value"));
+        }
+    }
+
+    private static Object field(Object target, String name) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(target);
+    }
+}
@@ -0,0 +1,137 @@
+package io.aboutcode.stage.processor;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.aboutcode.stage.dependency.AnnotatedDependencyParser;
+import io.aboutcode.stage.dependency.DependencyAware;
+import io.aboutcode.stage.dependency.DependencyContext;
+import java.net.URLClassLoader;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ResolvedInjectorProcessorTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private Compilation compilation;
+
+    @Before
+    public void setUp() throws Exception {
+        compilation = Compilation.compile(
+                folder, new ResolvedInjectorProcessor(),
+                "package sample;\n"
+                + "import io.aboutcode.stage.dependency.DependencyAware;\n"
+                + "import io.aboutcode.stage.dependency.Resolved;\n"
+                + "import java.util.List;\n"
+                + "import java.util.Set;\n"
+                + "public class Injected implements DependencyAware {\n"
+                + "    @Resolved public String single;\n"
+                + "    @Resolved(identifier = \"port\") public int port = 1;\n"
+                + "    @Resolved(identifier = \"timeout\") public long timeout = 2;\n"
+                + "    @Resolved(mandatory = false) public Integer optional;\n"
+                + "    @Resolved public List<Long> list;\n"
+                + "    @Resolved public Set<Long> set;\n"
+                + "    @Resolved public String[] array;\n"
+                + "}\n",
+                "package sample;\n"
+                + "import io.aboutcode.stage.dependency.DependencyAware;\n"
+                + "import io.aboutcode.stage.dependency.Resolved;\n"
+                + "public class Extended extends Injected {\n"
+                + "    @Resolved public Double single;\n"
+                + "}\n",
+                "package sample;\n"
+                + "import io.aboutcode.stage.dependency.DependencyAware;\n"
+                + "import io.aboutcode.stage.dependency.Resolved;\n"
+                + "public class Fallback implements DependencyAware {\n"
+                + "    @Resolved public String accessible;\n"
+                + "    @Resolved private String value;\n"
+                + "}\n");
+    }
+
+    @Test
+    public void testGeneratedInjector() throws Exception {
+        assertTrue(compilation.isGenerated("sample.Injected_ResolvedInjector"));
+
+        DependencyContext context = mock(DependencyContext.class);
+        when(context.retrieveDependency(eq(String.class), eq(true))).thenReturn("single");
+        when(context.retrieveDependency(eq("port"), eq(int.class), eq(true))).thenReturn(8080);
+        when(context.retrieveDependency(eq("timeout"), eq(long.class), eq(true))).thenReturn(null);
+        when(context.retrieveDependency(eq(Integer.class), eq(false))).thenReturn(null);
+        when(context.retrieveDependencies(eq(Long.class)))
+                .thenReturn(new HashSet<>(Collections.singletonList(3L)));
+        when(context.retrieveDependencies(eq(String.class)))
+                .thenReturn(new HashSet<>(Collections.singletonList("element")));
+
+        try (URLClassLoader loader = compilation.loader()) {
+            DependencyAware target = (DependencyAware) loader.loadClass("sample.Injected")
+                                                              .newInstance();
+            Collection<DependencyAware> dependencyAwares = AnnotatedDependencyParser
+                    .parseAnnotations(target);
+            // all fields are injected by the single generated injector
+            assertEquals(1, dependencyAwares.size());
+            for (DependencyAware aware : dependencyAwares) {
+                aware.resolve(context);
+            }
+
+            assertEquals("single", field(target, "single"));
+            assertEquals(8080, field(target, "port"));
+            assertEquals(2L, field(target, "timeout"));
+            assertNull(field(target, "optional"));
+            assertEquals(Collections.singletonList(3L), field(target, "list"));
+            assertTrue(field(target, "list") instanceof List);
+            assertEquals(Collections.singleton(3L), field(target, "set"));
+            assertArrayEquals(new String[]{"element"}, (String[]) field(target, "array"));
+        }
+    }
+
+    @Test
+    public void testSuperclassFields() throws Exception {
+        assertTrue(compilation.isGenerated("sample.Extended_ResolvedInjector"));
+
+        DependencyContext context = mock(DependencyContext.class);
+        when(context.retrieveDependency(eq(String.class), eq(true))).thenReturn("hidden");
+        when(context.retrieveDependency(eq(Double.class), eq(true))).thenReturn(1.5);
+        when(context.retrieveDependencies(eq(Long.class))).thenReturn(new HashSet<>());
+        when(context.retrieveDependencies(eq(String.class))).thenReturn(new HashSet<>());
+
+        try (URLClassLoader loader = compilation.loader()) {
+            Class<?> type = loader.loadClass("sample.Extended");
+            DependencyAware target = (DependencyAware) type.newInstance();
+            for (DependencyAware aware : AnnotatedDependencyParser.parseAnnotations(target)) {
+                aware.resolve(context);
+            }
+
+            assertEquals(1.5, type.getField("single").get(target));
+            assertEquals("hidden", type.getSuperclass().getField("single").get(target));
+        }
+    }
+
+    @Test
+    public void testReflectionFallback() throws Exception {
+        assertFalse(compilation.isGenerated("sample.Fallback_ResolvedInjector"));
+        assertTrue(compilation.isNoted("sample.Fallback", "'value'"));
+
+        try (URLClassLoader loader = compilation.loader()) {
+            DependencyAware target = (DependencyAware) loader.loadClass("sample.Fallback")
+                                                              .newInstance();
+            // one reflective injection point per field
+            assertEquals(2, AnnotatedDependencyParser.parseAnnotations(target).size());
+        }
+    }
+
+    private static Object field(Object target, String name) throws Exception {
+        return target.getClass().getField(name).get(target);
+    }
+}
@@ -1,7 +1,7 @@
 package io.aboutcode.stage.web;
 
 import com.google.common.base.CharMatcher;
-import io.aboutcode.stage.dispatch.Dispatcher;
+import io.aboutcode.stage.dispatch.EnumDispatcher;
 import io.aboutcode.stage.web.request.Part;
 import io.aboutcode.stage.web.request.RequestHandler;
 import io.aboutcode.stage.web.request.RequestType;
@@ -47,8 +47,8 @@ final class SparkServer {
     private final List<Route> routes;
     private final Set<WebsocketEndpoint> websocketEndpoints;
     private final WebsocketIo websocketIo;
-    private final Dispatcher<RequestType, ServiceRequestProcessor> SERVICE_PROCESSORS =
-            Dispatcher
+    private final EnumDispatcher<RequestType, ServiceRequestProcessor> SERVICE_PROCESSORS =
+            EnumDispatcher
                     .of(RequestType.AFTER_ALL, filter(HttpMethod.after))
                     .with(RequestType.BEFORE_ALL, filter(HttpMethod.before))
                     .with(RequestType.GET, route(HttpMethod.get))
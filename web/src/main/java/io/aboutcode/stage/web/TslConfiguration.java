@@ -8,23 +8,23 @@ import io.aboutcode.stage.configuration.Parameter;
 final class TslConfiguration {
     @Parameter(name = "web-keystore",
             description = "The full file system path to the keystore for the web server's private and public key")
-    private String keyStoreLocation;
+    String keyStoreLocation;
     @Parameter(name = "web-keystore-password",
             description = "The password for the keystore; omit if not set",
             mandatory = false)
-    private String keyStorePassword;
+    String keyStorePassword;
     @Parameter(name = "web-truststore",
             description = "The full file system path to the trust store for the web server's certificate",
             mandatory = false)
-    private String trustStoreLocation;
+    String trustStoreLocation;
     @Parameter(name = "web-truststore-password",
             description = "The password for the trust store; omit if not set",
             mandatory = false)
-    private String trustStorePassword;
+    String trustStorePassword;
     @Parameter(name = "web-client-certificate-required",
             description = "If set, the client is required to present a certificate",
             mandatory = false)
-    private boolean clientCertificateRequired;
+    boolean clientCertificateRequired;
 
     TslConfiguration() {
     }
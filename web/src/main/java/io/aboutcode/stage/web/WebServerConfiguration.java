@@ -8,11 +8,11 @@ import io.aboutcode.stage.configuration.Parameter;
 final class WebServerConfiguration {
     @Parameter(name = "web-port",
             description = "The port the application should be accessible through")
-    private int port;
+    int port;
     @Parameter(name = "static-folder",
             description = "The full and absolute folder name of the directory that contains external (i.e. on the file system) static resources",
             mandatory = false)
-    private String externalStaticFolder;
+    String externalStaticFolder;
 
     WebServerConfiguration(int defaultPort) {
         this.port = defaultPort;
@@ -33,6 +33,16 @@ public interface WebsocketClientSession {
      */
     void subscribeClientToTopic(Object topic);
 
+    /**
+     * Subscribes the connected client to all hierarchical topics matching the specified pattern,
+     * e.g. <code>prices/EUR/*</code> or <code>prices/#</code>. It will henceforth receive
+     * broadcasts to all matching topics. See {@link
+     * io.aboutcode.stage.subscription.SubscriptionManager} for the syntax of patterns.
+     *
+     * @param pattern The pattern of topics to subscribe the client to
+     */
+    void subscribeClientToPattern(String pattern);
+
     /**
      * Adds state to the client session. This can be used by a handler to persist information that
      * pertains only to the session.
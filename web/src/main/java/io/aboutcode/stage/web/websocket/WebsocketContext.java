@@ -1,5 +1,6 @@
 package io.aboutcode.stage.web.websocket;
 
+import java.util.List;
 
 /**
  * This allows a {@link WebsocketDataHandler} to interact with the context of the enclosing {@link
@@ -10,12 +11,37 @@ public interface WebsocketContext {
      * This allows the {@link WebsocketDataHandler} to publish messages to all clients subscribed to
      * the specified topic.
      *
-     * @param topic   The topic to send the message to. If this is null, <em>all</em> clients will
-     *                receive the message
+     * @param topic   The topic to send the message to. If this is null, only clients subscribed to
+     *                the null topic receive the message; use {@link #publishToAllClients(Object)}
+     *                to reach all clients
      * @param message The message to send
      */
     void publishToSubscribedClients(String topic, Object message);
 
+    /**
+     * This allows the {@link WebsocketDataHandler} to publish multiple messages at once to all
+     * clients subscribed to the specified topic. Each client receives the messages in the order of
+     * the list. This is considerably cheaper than publishing the messages one by one.
+     *
+     * @param topic    The topic to send the messages to. If this is null, only clients subscribed
+     *                 to the null topic receive the messages
+     * @param messages The messages to send, each of which is sent as a message of its own
+     */
+    void publishBatchToSubscribedClients(String topic, List<?> messages);
+
+    /**
+     * This allows the {@link WebsocketDataHandler} to publish a message to all clients subscribed to
+     * the specified topic that supersedes previous messages of the same key. Clients that have not
+     * yet been sent a previous message of the same key only receive the latest one, which keeps
+     * slow clients from falling further and further behind.
+     *
+     * @param topic   The topic to send the message to. If this is null, only clients subscribed to
+     *                the null topic receive the message
+     * @param key     The key of the message, e.g. the identifier of the entity it describes
+     * @param message The message to send
+     */
+    void publishLatestToSubscribedClients(String topic, Object key, Object message);
+
     /**
      * This allows the {@link WebsocketDataHandler} to publish messages to all clients connected to
      * the websocket (broadcast).
@@ -1,6 +1,10 @@
 package io.aboutcode.stage.web.websocket;
 
+import io.aboutcode.stage.concurrent.OverflowPolicy;
+import io.aboutcode.stage.concurrent.PooledTopicExecutor;
 import io.aboutcode.stage.subscription.SubscriptionManager;
+import io.aboutcode.stage.subscription.SubscriptionManager.SubscriptionAction;
+import io.aboutcode.stage.subscription.SubscriptionManagerBuilder;
 import io.aboutcode.stage.util.Action;
 import io.aboutcode.stage.web.websocket.io.WebsocketIo;
 import java.io.IOException;
@@ -31,8 +35,15 @@ import org.slf4j.LoggerFactory;
 @WebSocket
 public final class WebsocketEndpoint {
     private static final Logger logger = LoggerFactory.getLogger(WebsocketEndpoint.class);
-    private final SubscriptionManager<Long, Consumer<Object>, Void> broadcastSubscriptionManager = SubscriptionManager
-            .asynchronous();
+    private static final int CLIENT_LANE_CAPACITY = 1024;
+    // each client gets a lane of its own, so a slow client does not delay the others; a client
+    // lagging by more than the capacity loses its oldest messages rather than buffering them
+    private final SubscriptionManager<Long, Consumer<Object>, Void> broadcastSubscriptionManager = SubscriptionManagerBuilder
+            .create()
+            .withExecutor(new PooledTopicExecutor())
+            .withSubscriberLanes(true)
+            .withSubscriberLaneCapacity(CLIENT_LANE_CAPACITY, OverflowPolicy.DROP_OLDEST)
+            .build();
     private final Map<Session, DefaultWebsocketClientSession> sessions = new HashMap<>();
     private final String path;
     private final WebsocketIo io;
@@ -54,6 +65,25 @@ public final class WebsocketEndpoint {
                                                               subscriber.accept(message));
             }
 
+            @Override
+            public void publishBatchToSubscribedClients(String topic, List<?> messages) {
+                List<SubscriptionAction<Consumer<Object>, Void>> actions = messages
+                        .stream()
+                        .<SubscriptionAction<Consumer<Object>, Void>>map(
+                                message -> (subscriber, handback, ctx) -> subscriber
+                                        .accept(message))
+                        .collect(Collectors.toList());
+                broadcastSubscriptionManager.forTopic(topic, actions);
+            }
+
+            @Override
+            public void publishLatestToSubscribedClients(String topic, Object key,
+                                                         Object message) {
+                broadcastSubscriptionManager.forTopic(topic, key,
+                                                      (subscriber, handback, ctx) ->
+                                                              subscriber.accept(message));
+            }
+
             @Override
             public void publishToAllClients(Object message) {
                 broadcastSubscriptionManager.forAll(
@@ -113,6 +143,7 @@ public final class WebsocketEndpoint {
             WriteCallback {
         private final Map<String, Object> state = new HashMap<>();
         private final Map<Object, Long> broadcastTopicToHandle = new HashMap<>();
+        private final Map<String, Long> broadcastPatternToHandle = new HashMap<>();
         private final Session session;
         private Action cleanupAction;
 
@@ -152,9 +183,18 @@ public final class WebsocketEndpoint {
                     broadcastSubscriptionManager.subscribe(key, null, this::send));
         }
 
+        @Override
+        public void subscribeClientToPattern(String pattern) {
+            broadcastPatternToHandle.computeIfAbsent(pattern, key ->
+                    broadcastSubscriptionManager.subscribeToPattern(key, null, this::send));
+        }
+
         void unsubscribeClientFromAll() {
             broadcastTopicToHandle.forEach((key, value) ->
                                                    broadcastSubscriptionManager.unsubscribe(value));
+            broadcastPatternToHandle.forEach((key, value) ->
+                                                     broadcastSubscriptionManager
+                                                             .unsubscribe(value));
         }
 
         @Override